@@ -7,15 +7,21 @@ import com.danven.web_library.domain.user.Address;
 import com.danven.web_library.domain.user.Customer;
 import com.danven.web_library.domain.user.User;
 import com.danven.web_library.repository.*;
+import com.danven.web_library.storage.ImageStore;
+import com.danven.web_library.storage.StoredBlob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
@@ -28,6 +34,8 @@ import java.util.Set;
 @SpringBootApplication
 public class WebLibraryApplication implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(WebLibraryApplication.class);
+
     public static void main(String[] args) {
         SpringApplication.run(WebLibraryApplication.class, args);
     }
@@ -42,11 +50,19 @@ public class WebLibraryApplication implements CommandLineRunner {
     private OfferRepository offerRepository;
 
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ImageStore imageStore;
 
     @Override
     @Transactional
     public void run(String... args) throws Exception {
+        if (categoryRepository.count() > 0) {
+            log.info("Skipping sample data, the database already contains data");
+            return;
+        }
+
         Category firstCategory = new Category("Fantasy");
         Category secondCategory = new Category("Documentary");
         Category thirdCategory = new Category("Science");
@@ -121,52 +137,71 @@ public class WebLibraryApplication implements CommandLineRunner {
                 DiskFormat.CD
         );
 
+        StoredBlob firstBookCover = storeImage("book1(jpeg).jpeg");
+        StoredBlob secondBookCover = storeImage("book2(jpeg).jpeg");
+        StoredBlob thirdBookCover = storeImage("book3(jpeg).jpeg");
+        StoredBlob placeholderCover = storeImage("R.png");
+
         Image firstImage = new Image(
-                Files.readAllBytes(Path.of("src/main/resources/static/images/book1(jpeg).jpeg")),
+                firstBookCover.getDigest(),
+                firstBookCover.getSizeInBytes(),
                 ImageFormat.JPEG,
                 true,
+                0,
                 firstBook
         );
 
         Image secondImage = new Image(
-                Files.readAllBytes(Path.of("src/main/resources/static/images/book2(jpeg).jpeg")),
+                secondBookCover.getDigest(),
+                secondBookCover.getSizeInBytes(),
                 ImageFormat.JPEG,
                 false,
+                1,
                 firstBook
         );
 
         Image thirdImage = new Image(
-                Files.readAllBytes(Path.of("src/main/resources/static/images/book3(jpeg).jpeg")),
+                thirdBookCover.getDigest(),
+                thirdBookCover.getSizeInBytes(),
                 ImageFormat.JPEG,
                 false,
+                2,
                 firstBook
         );
 
         Image forthImage = new Image(
-                Files.readAllBytes(Path.of("src/main/resources/static/images/R.png")),
+                placeholderCover.getDigest(),
+                placeholderCover.getSizeInBytes(),
                 ImageFormat.PNG,
                 true,
+                0,
                 secondBook
         );
 
         Image fifthImage = new Image(
-                Files.readAllBytes(Path.of("src/main/resources/static/images/R.png")),
+                placeholderCover.getDigest(),
+                placeholderCover.getSizeInBytes(),
                 ImageFormat.PNG,
                 false,
+                1,
                 secondBook
         );
 
         Image sixthImage = new Image(
-                Files.readAllBytes(Path.of("src/main/resources/static/images/R.png")),
+                placeholderCover.getDigest(),
+                placeholderCover.getSizeInBytes(),
                 ImageFormat.PNG,
                 true,
+                0,
                 thirdBook
         );
 
         Image seventhImage = new Image(
-                Files.readAllBytes(Path.of("src/main/resources/static/images/R.png")),
+                placeholderCover.getDigest(),
+                placeholderCover.getSizeInBytes(),
                 ImageFormat.PNG,
                 false,
+                1,
                 thirdBook
         );
 
@@ -249,4 +284,17 @@ public class WebLibraryApplication implements CommandLineRunner {
                 (Customer) secondUser
         );
     }
+
+    /**
+     * Stores one of the bundled seed images in the image store.
+     *
+     * @param fileName the file name below the static images directory.
+     * @return the stored blob.
+     * @throws IOException if the image can't be read or stored.
+     */
+    private StoredBlob storeImage(String fileName) throws IOException {
+        try (InputStream content = Files.newInputStream(Path.of("src/main/resources/static/images", fileName))) {
+            return imageStore.store(content);
+        }
+    }
 }
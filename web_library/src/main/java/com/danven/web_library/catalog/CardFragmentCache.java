@@ -0,0 +1,157 @@
+package com.danven.web_library.catalog;
+
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.dto.RenderedCard;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.event.CatalogChangedElsewhereEvent;
+import com.danven.web_library.event.CatalogImportedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of catalog cards rendered to HTML, keyed by book ID and version.
+ * Listings are assembled from the cached fragments, so a card template is only evaluated when a book
+ * is shown for the first time or after it changed. A fragment is re-rendered whenever it is requested
+ * for a card with another version, and dropped once an update of its book has been committed.
+ * <p>
+ * Fragments are rendered outside of the request, with a fixed locale, so the cached HTML is the same
+ * for every client. Like the catalog snapshot, the cache holds at most one entry per book.
+ */
+@Component
+public class CardFragmentCache {
+
+    private static final String TEMPLATE = "fragments/card";
+
+    private static final Set<String> SELECTORS = Set.of("card");
+
+    private static final Locale LOCALE = Locale.ENGLISH;
+
+    private final ITemplateEngine templateEngine;
+
+    private final String contextPath;
+
+    private final ConcurrentMap<Long, Fragment> fragments = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new CardFragmentCache.
+     *
+     * @param templateEngine the engine rendering the card template.
+     * @param contextPath    the context path of the application, prepended to image URLs.
+     */
+    public CardFragmentCache(ITemplateEngine templateEngine,
+                             @Value("${server.servlet.context-path:}") String contextPath) {
+        this.templateEngine = templateEngine;
+        this.contextPath = contextPath;
+    }
+
+    /**
+     * Renders the given cards, keeping their order.
+     *
+     * @param cards the cards to render.
+     * @return the rendered cards.
+     */
+    public List<RenderedCard> render(List<CatalogCard> cards) {
+        return cards.stream()
+                .map(card -> new RenderedCard(card.getBookId(), render(card)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the HTML of a card, rendering it if no fragment of this version is cached.
+     * If two versions of a card are rendered concurrently, the newer one is kept.
+     *
+     * @param card the card to render.
+     * @return the HTML of the card.
+     */
+    public String render(CatalogCard card) {
+        Fragment cached = fragments.get(card.getBookId());
+        if (cached != null && cached.version == card.getVersion()) {
+            return cached.html;
+        }
+        Fragment rendered = new Fragment(card.getVersion(), renderFragment(card));
+        fragments.merge(card.getBookId(), rendered,
+                (existing, candidate) -> candidate.version >= existing.version ? candidate : existing);
+        return rendered.html;
+    }
+
+    /**
+     * Returns the number of cached fragments.
+     *
+     * @return the number of fragments.
+     */
+    public int size() {
+        return fragments.size();
+    }
+
+    /**
+     * Drops the fragment of a book once its update has been committed.
+     *
+     * @param event the book update event.
+     */
+    @TransactionalEventListener
+    public void onBookUpdated(BookUpdatedEvent event) {
+        fragments.remove(event.getBookId());
+    }
+
+    /**
+     * Drops all fragments once an import has finished.
+     *
+     * @param event the import event.
+     */
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        fragments.clear();
+    }
+
+    /**
+     * Drops the fragments of the books another instance has changed, or all fragments if it isn't known
+     * which books changed.
+     *
+     * @param event the event announcing the change.
+     */
+    @EventListener
+    public void onCatalogChangedElsewhere(CatalogChangedElsewhereEvent event) {
+        event.getBookIds().ifPresentOrElse(fragments.keySet()::removeAll, fragments::clear);
+    }
+
+    /**
+     * Evaluates the card template for a card.
+     *
+     * @param card the card to render.
+     * @return the HTML of the card.
+     */
+    private String renderFragment(CatalogCard card) {
+        Context context = new Context(LOCALE);
+        context.setVariable("card", card);
+        context.setVariable("imageUrl", card.getPreviewImageId() == null
+                ? null
+                : contextPath + "/images/" + card.getPreviewImageId() + "/card");
+        return templateEngine.process(TEMPLATE, SELECTORS, context);
+    }
+
+    /**
+     * Rendered HTML of one version of a card.
+     */
+    private static final class Fragment {
+
+        private final long version;
+
+        private final String html;
+
+        private Fragment(long version, String html) {
+            this.version = version;
+            this.html = html;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.danven.web_library.catalog;
+
+import com.danven.web_library.domain.offer.PublishState;
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.repository.CatalogCardRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads catalog cards from the database.
+ * Cards are projected straight from the database and never enter the persistence context as entities.
+ */
+@Component
+public class CatalogCardLoader {
+
+    /**
+     * Largest number of IDs bound to a single IN query.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final CatalogCardRepository catalogCardRepository;
+
+    /**
+     * Constructs a new CatalogCardLoader.
+     *
+     * @param catalogCardRepository the repository projecting books into catalog cards.
+     */
+    public CatalogCardLoader(CatalogCardRepository catalogCardRepository) {
+        this.catalogCardRepository = catalogCardRepository;
+    }
+
+    /**
+     * Loads the cards of all published books, highest book ID first.
+     *
+     * @return the published cards.
+     */
+    @Transactional(readOnly = true)
+    public List<CatalogCard> loadPublished() {
+        return load(catalogCardRepository.findPublishedBookIds());
+    }
+
+    /**
+     * Loads the card of a book if it is published.
+     *
+     * @param bookId the ID of the book.
+     * @return the card, or an empty Optional if the book doesn't exist or isn't published.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CatalogCard> loadPublished(Long bookId) {
+        if (!catalogCardRepository.existsByIdAndOfferPublishState(bookId, PublishState.PUBLISHED)) {
+            return Optional.empty();
+        }
+        return load(List.of(bookId)).stream().findFirst();
+    }
+
+    /**
+     * Loads the cards of all books offered by a specific owner, highest book ID first.
+     *
+     * @param ownerId the ID of the owner.
+     * @return the owner's cards.
+     */
+    @Transactional(readOnly = true)
+    public List<CatalogCard> loadByOwner(Long ownerId) {
+        return load(catalogCardRepository.findBookIdsByOwnerId(ownerId));
+    }
+
+    /**
+     * Loads the cards of the books with the given IDs, keeping the order of the IDs.
+     * IDs of books that don't exist are skipped.
+     *
+     * @param ids the IDs of the books.
+     * @return the cards in the order of the IDs.
+     */
+    @Transactional(readOnly = true)
+    public List<CatalogCard> load(List<Long> ids) {
+        List<CatalogCard> cards = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            cards.addAll(loadBatch(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))));
+        }
+        return cards;
+    }
+
+    /**
+     * Loads the cards of a batch of books with a fixed number of queries.
+     *
+     * @param ids the IDs of the books.
+     * @return the cards in the order of the IDs.
+     */
+    private List<CatalogCard> loadBatch(List<Long> ids) {
+        Map<Long, CatalogCard> cards = catalogCardRepository.findCardsByBookIdIn(ids).stream()
+                .collect(Collectors.toMap(CatalogCard::getBookId, Function.identity()));
+        for (Object[] row : catalogCardRepository.findCategoryNamesByBookIdIn(ids)) {
+            CatalogCard card = cards.get((Long) row[0]);
+            if (card != null) {
+                card.addCategoryName((String) row[1]);
+            }
+        }
+        return ids.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,264 @@
+package com.danven.web_library.catalog;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.catalog.CatalogChange;
+import com.danven.web_library.domain.catalog.CatalogRevision;
+import com.danven.web_library.domain.offer.Offer;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.event.CatalogChangedElsewhereEvent;
+import com.danven.web_library.event.CatalogImportedEvent;
+import com.danven.web_library.repository.BookRepository;
+import com.danven.web_library.repository.CatalogChangeRepository;
+import com.danven.web_library.repository.CatalogRevisionRepository;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-memory catalog state of an instance in step with the changes other instances make.
+ * <p>
+ * The catalog snapshot, the search index, the rendered card fragments, and the second-level cache are only
+ * updated from events of the instance that made the change. When several instances share a database, every
+ * committed book update and import therefore also increments the shared {@link CatalogRevision} and logs the
+ * changed book as a {@link CatalogChange}, and each instance polls the revision. A revision the instance hasn't
+ * produced itself evicts the changed books from the second-level cache and publishes a
+ * {@link CatalogChangedElsewhereEvent}, on which just these books are refreshed. After an import, or when the
+ * instance has fallen so far behind that part of the changes is no longer logged, the whole second-level cache
+ * is evicted and the in-memory state is rebuilt instead. Other instances thus see a change within one poll
+ * interval, plus the replication lag when reading from replicas.
+ * <p>
+ * Only active when enabled with web-library.catalog.revision-sync.enabled, as the jdbc-sessions profile does.
+ */
+@Component
+@ConditionalOnProperty(name = "web-library.catalog.revision-sync.enabled", havingValue = "true")
+public class CatalogRevisionSync implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogRevisionSync.class);
+
+    /**
+     * Number of changes kept in the log; instances further behind rebuild their whole state.
+     */
+    static final int LOGGED_CHANGES = 1000;
+
+    private static final String BOOK_CATEGORIES = Book.class.getName() + ".categories";
+
+    private final CatalogRevisionRepository catalogRevisionRepository;
+
+    private final CatalogChangeRepository catalogChangeRepository;
+
+    private final BookRepository bookRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final long intervalMillis;
+
+    private final ScheduledExecutorService scheduler;
+
+    private long seenRevision;
+
+    /**
+     * Constructs a new CatalogRevisionSync.
+     *
+     * @param catalogRevisionRepository the repository of the shared revision counter.
+     * @param catalogChangeRepository   the repository of the shared change log.
+     * @param bookRepository            the repository finding the offers of changed books.
+     * @param entityManagerFactory      the factory whose second-level cache is evicted on changes made elsewhere.
+     * @param eventPublisher            the publisher announcing changes made elsewhere.
+     * @param transactionManager        the transaction manager reading and incrementing the revision.
+     * @param interval                  the time between two polls of the revision.
+     */
+    public CatalogRevisionSync(CatalogRevisionRepository catalogRevisionRepository,
+                               CatalogChangeRepository catalogChangeRepository,
+                               BookRepository bookRepository,
+                               EntityManagerFactory entityManagerFactory,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${web-library.catalog.revision-sync.interval:5s}") Duration interval) {
+        this.catalogRevisionRepository = catalogRevisionRepository;
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.bookRepository = bookRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.intervalMillis = interval.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-revision-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the revision counter if the schema hasn't, takes the current revision as seen, since the
+     * catalog has just been loaded, and starts polling.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!catalogRevisionRepository.existsById(CatalogRevision.ID)) {
+                catalogRevisionRepository.save(new CatalogRevision());
+            }
+        });
+        synchronized (this) {
+            seenRevision = Math.max(seenRevision, readRevision());
+        }
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Increments the revision within the transaction updating the book, as late as possible to hold the lock
+     * on the counter only briefly.
+     *
+     * @param event the book update event.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookUpdated(BookUpdatedEvent event) {
+        incrementRevision(event.getBookId());
+    }
+
+    /**
+     * Increments the revision once an import has finished.
+     *
+     * @param event the import event.
+     */
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        transactionTemplate.executeWithoutResult(status -> incrementRevision(null));
+    }
+
+    /**
+     * Checks the revision and announces changes made elsewhere.
+     *
+     * @return true if the catalog was changed elsewhere since the last check, false otherwise.
+     */
+    public boolean poll() {
+        long revision = readRevision();
+        long seen;
+        synchronized (this) {
+            if (revision <= seenRevision) {
+                return false;
+            }
+            seen = seenRevision;
+            seenRevision = revision;
+        }
+        Set<Long> bookIds = changedBooks(seen, revision);
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (bookIds == null) {
+            log.info("Catalog changed elsewhere, reloading it at revision {}", revision);
+            cache.evictAllRegions();
+        } else {
+            log.info("{} books changed elsewhere, refreshing them at revision {}", bookIds.size(), revision);
+            evict(cache, bookIds);
+        }
+        eventPublisher.publishEvent(new CatalogChangedElsewhereEvent(revision, bookIds));
+        return true;
+    }
+
+    /**
+     * Stops polling.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Increments the revision and logs the change in the current transaction. If no other instance has changed
+     * the catalog in between, the new revision is taken as seen once the transaction has been committed, since
+     * the local listeners have already applied the change.
+     *
+     * @param bookId the ID of the changed book, or null if the whole catalog may have changed.
+     */
+    private void incrementRevision(Long bookId) {
+        if (catalogRevisionRepository.increment() == 0) {
+            return;
+        }
+        long revision = catalogRevisionRepository.findRevision().orElseThrow();
+        catalogChangeRepository.save(new CatalogChange(revision, bookId));
+        catalogChangeRepository.deleteUpTo(revision - LOGGED_CHANGES);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (CatalogRevisionSync.this) {
+                    if (seenRevision == revision - 1) {
+                        seenRevision = revision;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the books changed within a range of revisions from the change log.
+     *
+     * @param after the last revision seen, exclusive.
+     * @param upTo  the revision found, inclusive.
+     * @return the IDs of the changed books, or null if the whole catalog may have changed
+     * or part of the changes is no longer logged.
+     */
+    private Set<Long> changedBooks(long after, long upTo) {
+        List<CatalogChange> changes = readOnlyTransactionTemplate.execute(status ->
+                catalogChangeRepository.findBetween(after, upTo));
+        if (changes.size() < upTo - after || changes.stream().anyMatch(change -> change.getBookId() == null)) {
+            return null;
+        }
+        return changes.stream().map(CatalogChange::getBookId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Evicts changed books with their categories and offers from the second-level cache.
+     *
+     * @param cache   the second-level cache.
+     * @param bookIds the IDs of the changed books.
+     */
+    private void evict(Cache cache, Set<Long> bookIds) {
+        List<Long> offerIds = readOnlyTransactionTemplate.execute(status -> bookRepository.findOfferIds(bookIds));
+        for (Long bookId : bookIds) {
+            cache.evictEntityData(Book.class, bookId);
+            cache.evictCollectionData(BOOK_CATEGORIES, bookId);
+        }
+        offerIds.forEach(offerId -> cache.evictEntityData(Offer.class, offerId));
+    }
+
+    private long readRevision() {
+        return readOnlyTransactionTemplate.execute(status -> catalogRevisionRepository.findRevision().orElse(0L));
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Failed to check the catalog revision: {}", e.getMessage());
+        }
+    }
+}
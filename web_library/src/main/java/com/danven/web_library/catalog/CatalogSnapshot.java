@@ -0,0 +1,245 @@
+package com.danven.web_library.catalog;
+
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.dto.KeysetPage;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.event.CatalogChangedElsewhereEvent;
+import com.danven.web_library.event.CatalogImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, versioned in-memory copy of the published catalog.
+ * Readers take the current {@link Version} without locking and keep working on it even if a newer
+ * version is swapped in meanwhile. The catalog is loaded once the application is ready and
+ * patched for a single book whenever an update of that book has been committed; every patch
+ * produces a new version, so a version never changes after it has been published.
+ * Changes made by other instances sharing the database are picked up through {@link CatalogRevisionSync}.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private final CatalogCardLoader catalogCardLoader;
+
+    private volatile Version current = new Version(0, List.of());
+
+    /**
+     * Constructs a new CatalogSnapshot.
+     *
+     * @param catalogCardLoader the loader reading catalog cards from the database.
+     */
+    public CatalogSnapshot(CatalogCardLoader catalogCardLoader) {
+        this.catalogCardLoader = catalogCardLoader;
+    }
+
+    /**
+     * Returns the current version of the published catalog.
+     *
+     * @return the current version.
+     */
+    public Version current() {
+        return current;
+    }
+
+    /**
+     * Loads the whole published catalog once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        current = new Version(current.getNumber() + 1, catalogCardLoader.loadPublished());
+        log.info("Loaded catalog snapshot version {} with {} published books", current.getNumber(), current.size());
+    }
+
+    /**
+     * Reloads the whole published catalog once an import has finished.
+     *
+     * @param event the import event.
+     */
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        onApplicationReady();
+    }
+
+    /**
+     * Replaces the cards of the books another instance has changed, or reloads the whole published catalog
+     * if it isn't known which books changed.
+     *
+     * @param event the event announcing the change.
+     */
+    @EventListener
+    public synchronized void onCatalogChangedElsewhere(CatalogChangedElsewhereEvent event) {
+        event.getBookIds().ifPresentOrElse(bookIds -> bookIds.forEach(this::replace), this::onApplicationReady);
+    }
+
+    /**
+     * Replaces the card of a book once its update has been committed.
+     * The book is dropped from the catalog if it is no longer published.
+     * Writers are serialized, so patches of the same book are applied in commit order.
+     *
+     * @param event the book update event.
+     */
+    @TransactionalEventListener
+    public synchronized void onBookUpdated(BookUpdatedEvent event) {
+        replace(event.getBookId());
+    }
+
+    /**
+     * Replaces the card of a book with its current published state, or drops it.
+     * Callers hold the monitor.
+     *
+     * @param bookId the ID of the book.
+     */
+    private void replace(Long bookId) {
+        Optional<CatalogCard> card = catalogCardLoader.loadPublished(bookId);
+        current = current.with(bookId, card.orElse(null));
+    }
+
+    /**
+     * One immutable version of the published catalog, highest book ID first.
+     */
+    public static final class Version {
+
+        private final long number;
+
+        private final List<CatalogCard> cards;
+
+        private final Map<Long, CatalogCard> cardsById;
+
+        private final Instant createdAt;
+
+        /**
+         * Constructs a new Version.
+         *
+         * @param number the version number.
+         * @param cards  the published cards, highest book ID first.
+         */
+        private Version(long number, List<CatalogCard> cards) {
+            this.number = number;
+            this.createdAt = Instant.now();
+            this.cards = Collections.unmodifiableList(new ArrayList<>(cards));
+            this.cardsById = cards.stream().collect(Collectors.toUnmodifiableMap(CatalogCard::getBookId, card -> card));
+        }
+
+        /**
+         * Creates the next version with the card of a book replaced, added, or removed.
+         *
+         * @param bookId the ID of the book.
+         * @param card   the new card of the book, or null to remove the book.
+         * @return the next version.
+         */
+        private Version with(Long bookId, CatalogCard card) {
+            List<CatalogCard> next = new ArrayList<>(cards.size() + 1);
+            boolean inserted = card == null;
+            for (CatalogCard existing : cards) {
+                if (!inserted && existing.getBookId() < bookId) {
+                    next.add(card);
+                    inserted = true;
+                }
+                if (!existing.getBookId().equals(bookId)) {
+                    next.add(existing);
+                }
+            }
+            if (!inserted) {
+                next.add(card);
+            }
+            return new Version(number + 1, next);
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        /**
+         * Returns when this version was loaded or patched, which is when the published catalog last changed.
+         *
+         * @return the creation time of the version.
+         */
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * Returns the number of published books.
+         *
+         * @return the number of cards.
+         */
+        public int size() {
+            return cards.size();
+        }
+
+        /**
+         * Returns one page of the catalog, highest book ID first.
+         *
+         * @param after    the ID of the last book of the previous page, or null for the first page.
+         * @param pageSize the number of cards on the page.
+         * @return the page with the cursor of the next page.
+         */
+        public KeysetPage<CatalogCard> page(Long after, int pageSize) {
+            int from = after == null ? 0 : firstIndexBelow(after);
+            int to = Math.min(from + pageSize, cards.size());
+            List<CatalogCard> items = cards.subList(from, to);
+            Long nextCursor = to < cards.size() ? items.get(items.size() - 1).getBookId() : null;
+            return new KeysetPage<>(items, nextCursor);
+        }
+
+        /**
+         * Returns the card of a book.
+         *
+         * @param bookId the ID of the book.
+         * @return the card, or an empty Optional if the book isn't published in this version.
+         */
+        public Optional<CatalogCard> card(Long bookId) {
+            return Optional.ofNullable(cardsById.get(bookId));
+        }
+
+        /**
+         * Returns the cards of the books with the given IDs, keeping the order of the IDs.
+         * IDs of books that aren't published in this version are skipped.
+         *
+         * @param ids the IDs of the books.
+         * @return the cards in the order of the IDs.
+         */
+        public List<CatalogCard> cards(List<Long> ids) {
+            return ids.stream()
+                    .map(cardsById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * Finds the position of the first card with a book ID lower than the given one.
+         *
+         * @param bookId the exclusive upper bound.
+         * @return the position, or the number of cards if there is none.
+         */
+        private int firstIndexBelow(long bookId) {
+            int low = 0;
+            int high = cards.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cards.get(middle).getBookId() >= bookId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.danven.web_library.config;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Principal of a logged-in user.
+ * Carries the ID, display name and roles of the user, populated once at login, so that requests
+ * can act on behalf of the user without looking them up again. Controllers take it with
+ * {@link org.springframework.security.core.annotation.AuthenticationPrincipal}.
+ */
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    /**
+     * Role of customers, who can offer books.
+     */
+    public static final String ROLE_CUSTOMER = "ROLE_CUSTOMER";
+
+    /**
+     * Role of administrators.
+     */
+    public static final String ROLE_ADMINISTRATOR = "ROLE_ADMINISTRATOR";
+
+    /**
+     * Role of partners, who can export the catalog.
+     */
+    public static final String ROLE_PARTNER = "ROLE_PARTNER";
+
+    private final Long id;
+
+    private final String email;
+
+    private final String displayName;
+
+    private final List<GrantedAuthority> authorities;
+
+    private String password;
+
+    /**
+     * Constructs a new AuthenticatedUser.
+     *
+     * @param id          the ID of the user.
+     * @param email       the email of the user, which is the username.
+     * @param password    the password hash, or null once the credentials have been erased.
+     * @param displayName the name shown for the user.
+     * @param authorities the roles of the user.
+     */
+    public AuthenticatedUser(Long id, String email, String password, String displayName,
+                             Collection<? extends GrantedAuthority> authorities) {
+        this.id = Objects.requireNonNull(id);
+        this.email = Objects.requireNonNull(email);
+        this.password = password;
+        this.displayName = displayName;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AuthenticatedUser && email.equals(((AuthenticatedUser) o).email);
+    }
+
+    @Override
+    public int hashCode() {
+        return email.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{" +
+                "id=" + id +
+                ", email='" + email + '\'' +
+                ", authorities=" + authorities +
+                '}';
+    }
+}
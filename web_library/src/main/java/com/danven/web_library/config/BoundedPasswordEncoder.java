@@ -0,0 +1,114 @@
+package com.danven.web_library.config;
+
+import com.danven.web_library.exceptions.PasswordHashingBusyException;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password encoder that hashes on a dedicated bounded pool instead of the calling request thread.
+ * At most as many hashes as the pool has threads are computed at once, so a burst of logins can't take
+ * the CPU away from other requests. When the queue of the pool is full, or a hash isn't done within the
+ * maximum wait, the caller fails fast with a {@link PasswordHashingBusyException} instead of piling up.
+ * A hash that reaches a thread too late to finish before its caller gives up is skipped, judged by the
+ * average time of recent hashes, so the pool only spends its time on logins that can still succeed.
+ * <p>
+ * Hashes with another cost than the configured one are reported as needing an upgrade, so they are
+ * rehashed transparently on the next successful login after the cost was changed.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final AsyncTaskExecutor executor;
+    private final long maxWaitNanos;
+    private volatile long averageHashNanos;
+
+    /**
+     * Constructs a new BoundedPasswordEncoder.
+     *
+     * @param strength the BCrypt cost of new hashes, between 4 and 31.
+     * @param executor the bounded pool computing the hashes.
+     * @param maxWait  how long a caller waits for a hash before giving up.
+     */
+    public BoundedPasswordEncoder(int strength, AsyncTaskExecutor executor, Duration maxWait) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.executor = executor;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return compute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return compute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher cost = BCRYPT_COST.matcher(encodedPassword);
+        return cost.find() && Integer.parseInt(cost.group(1)) != strength;
+    }
+
+    /**
+     * Runs a hashing task on the pool and waits for its result.
+     * The task is dropped without hashing if it starts too late to finish before the caller stops waiting.
+     *
+     * @param task the task.
+     * @param <T>  the type of the result.
+     * @return the result of the task.
+     * @throws PasswordHashingBusyException if the pool is saturated or the task didn't finish in time.
+     */
+    private <T> T compute(Callable<T> task) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long started = System.nanoTime();
+                if (deadline - started < averageHashNanos) {
+                    throw new PasswordHashingBusyException("Too many logins at the moment, try again shortly");
+                }
+                T value = task.call();
+                long took = System.nanoTime() - started;
+                averageHashNanos = averageHashNanos == 0 ? took : (averageHashNanos * 7 + took) / 8;
+                return value;
+            });
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException("Too many logins at the moment, try again shortly");
+        }
+        try {
+            return result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new PasswordHashingBusyException("Too many logins at the moment, try again shortly");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while checking the password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.danven.web_library.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration of the executor running the parsing and validation stages of catalog imports.
+ */
+@Configuration
+public class CatalogImportConfig {
+
+    /**
+     * Number of stages an import runs besides the persisting stage on the importing thread.
+     */
+    private static final int BACKGROUND_STAGES = 2;
+
+    /**
+     * Configures an executor with a thread for every background stage of every concurrent import.
+     * Tasks are never queued: a stage waiting in a queue would stall its import.
+     *
+     * @param maxConcurrentImports the number of imports that may run at the same time.
+     * @return ThreadPoolTaskExecutor instance.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor catalogImportExecutor(
+            @Value("${web-library.import.max-concurrent-imports:1}") int maxConcurrentImports) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(BACKGROUND_STAGES * maxConcurrentImports);
+        executor.setMaxPoolSize(BACKGROUND_STAGES * maxConcurrentImports);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("catalog-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -1,55 +1,85 @@
 package com.danven.web_library.config;
 
-import com.danven.web_library.domain.user.User;
-import com.danven.web_library.service.CustomerService;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.danven.web_library.dto.UserCredentials;
+import com.danven.web_library.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service class that implements UserDetailsService to provide custom user details retrieval.
+ * Logins read only the credentials of the user; the resulting {@link AuthenticatedUser} principal
+ * carries everything later requests need to know about the logged-in user.
+ * Passwords whose hash needs an upgrade are rehashed on login and stored through {@link #updatePassword}.
+ * Users whose email is listed in web-library.security.partner-emails are partners in addition to their role.
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
-    private final CustomerService customerService;
+    private final UserRepository userRepository;
+
+    private final Set<String> partnerEmails;
 
     /**
      * Constructs a new CustomUserDetailsService instance.
      *
-     * @param customerService The service for accessing User entities.
+     * @param userRepository The repository for reading user credentials.
+     * @param partnerEmails  The emails of the users who are partners.
      */
-    public CustomUserDetailsService(CustomerService customerService) {
-        this.customerService = customerService;
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${web-library.security.partner-emails:}") List<String> partnerEmails) {
+        this.userRepository = userRepository;
+        this.partnerEmails = partnerEmails.stream()
+                .map(String::trim)
+                .filter(email -> !email.isEmpty())
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
     }
 
     /**
      * Retrieves UserDetails based on the user's email.
      *
      * @param email The email of the user to load.
-     * @return UserDetails for the user.
+     * @return AuthenticatedUser for the user.
      * @throws UsernameNotFoundException If no user is found with the given email.
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = customerService.getUserByEmail(email);
-        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(), new ArrayList<>());
+        UserCredentials credentials = userRepository.findCredentialsByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority(
+                credentials.isAdministrator() ? AuthenticatedUser.ROLE_ADMINISTRATOR : AuthenticatedUser.ROLE_CUSTOMER));
+        if (partnerEmails.contains(credentials.getEmail().toLowerCase(Locale.ROOT))) {
+            authorities.add(new SimpleGrantedAuthority(AuthenticatedUser.ROLE_PARTNER));
+        }
+        return new AuthenticatedUser(credentials.getId(), credentials.getEmail(), credentials.getPassword(),
+                credentials.getName(), authorities);
     }
 
     /**
-     * Retrieves the currently logged-in user based on the authenticated context.
+     * Stores the new hash of a password that was rehashed on login, e.g. after the BCrypt cost was changed.
      *
-     * @return The User entity representing the currently logged-in user.
-     * @throws UsernameNotFoundException If no user is found for the authenticated context.
+     * @param user        The user who logged in.
+     * @param newPassword The new password hash.
+     * @return the user with the new password hash.
      */
-    public User getLoggedInUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return customerService.getUserByEmail(email);
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AuthenticatedUser authenticatedUser = (AuthenticatedUser) user;
+        userRepository.updatePassword(authenticatedUser.getId(), newPassword);
+        return new AuthenticatedUser(authenticatedUser.getId(), authenticatedUser.getUsername(), newPassword,
+                authenticatedUser.getDisplayName(), authenticatedUser.getAuthorities());
     }
-
 }
-
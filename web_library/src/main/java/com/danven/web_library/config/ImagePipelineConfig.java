@@ -0,0 +1,38 @@
+package com.danven.web_library.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration of the background executor that generates scaled image derivatives.
+ */
+@Configuration
+public class ImagePipelineConfig {
+
+    /**
+     * Configures a bounded executor for derivative generation.
+     * When the queue is full new work is rejected; the derivative service logs which images are affected,
+     * and they keep being served from the original until the derivatives are generated on the next startup.
+     *
+     * @param threads       the number of worker threads.
+     * @param queueCapacity the maximum number of queued generation tasks.
+     * @return ThreadPoolTaskExecutor instance.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageDerivativeExecutor(
+            @Value("${web-library.image-derivatives.threads:2}") int threads,
+            @Value("${web-library.image-derivatives.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-derivatives-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
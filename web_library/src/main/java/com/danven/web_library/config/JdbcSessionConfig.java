@@ -0,0 +1,44 @@
+package com.danven.web_library.config;
+
+import com.danven.web_library.session.SessionAttributeCodec;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+
+/**
+ * Configuration of the HTTP sessions stored in the database.
+ * Only active when the JDBC session store is selected, as the "jdbc-sessions" profile does.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.session.store-type", havingValue = "jdbc")
+public class JdbcSessionConfig {
+
+    /**
+     * Creates the codec serializing session attributes, also used by the session size guard.
+     *
+     * @return SessionAttributeCodec instance.
+     */
+    @Bean
+    public SessionAttributeCodec sessionAttributeCodec() {
+        return new SessionAttributeCodec();
+    }
+
+    /**
+     * Configures how the session repository converts attributes to and from the bytes it stores.
+     * Spring Session picks this bean up by its name.
+     *
+     * @param codec the codec serializing session attributes.
+     * @return ConversionService instance.
+     */
+    @Bean
+    @Qualifier("springSessionConversionService")
+    public ConversionService springSessionConversionService(SessionAttributeCodec codec) {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, codec::encode);
+        conversionService.addConverter(byte[].class, Object.class, codec::decode);
+        return conversionService;
+    }
+}
@@ -0,0 +1,54 @@
+package com.danven.web_library.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration of password hashing, which runs on a bounded executor rather than on the request threads.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * Configures a bounded executor for password hashing.
+     * When the queue is full new work is rejected, which fails the login immediately.
+     *
+     * @param threads       the number of worker threads.
+     * @param queueCapacity the maximum number of queued hashing tasks.
+     * @return ThreadPoolTaskExecutor instance.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${web-library.security.password-hashing.threads:2}") int threads,
+            @Value("${web-library.security.password-hashing.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Configures the password encoder bean, hashing with BCrypt on the password hashing executor.
+     *
+     * @param passwordHashingExecutor the executor computing the hashes.
+     * @param strength                the BCrypt cost of new hashes.
+     * @param maxWait                 how long a caller waits for a hash before failing.
+     * @return BoundedPasswordEncoder instance for password encoding.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            ThreadPoolTaskExecutor passwordHashingExecutor,
+            @Value("${web-library.security.bcrypt-strength:10}") int strength,
+            @Value("${web-library.security.password-hashing.max-wait:2s}") Duration maxWait) {
+        return new BoundedPasswordEncoder(strength, passwordHashingExecutor, maxWait);
+    }
+}
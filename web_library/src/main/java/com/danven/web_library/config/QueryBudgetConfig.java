@@ -0,0 +1,26 @@
+package com.danven.web_library.config;
+
+import com.danven.web_library.monitoring.StatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration registering the statement counter with Hibernate.
+ */
+@Configuration
+public class QueryBudgetConfig {
+
+    /**
+     * Installs the statement counter as the statement inspector of the session factory,
+     * unless another inspector has been configured explicitly.
+     *
+     * @param statementCounter the inspector counting the statements.
+     * @return HibernatePropertiesCustomizer instance.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+}
@@ -0,0 +1,112 @@
+package com.danven.web_library.config;
+
+import com.danven.web_library.datasource.ReadYourWritesFilter;
+import com.danven.web_library.datasource.ReplicaRoutingDataSource;
+import com.danven.web_library.datasource.ReplicationStandIn;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration routing read-only transactions to read replicas.
+ * Only active when replica URLs are configured; the replicas share the credentials of the primary.
+ * The "replicas" profile runs two local H2 replicas kept in sync by the {@link ReplicationStandIn}.
+ */
+@Configuration
+@ConditionalOnProperty("web-library.datasource.replica-urls")
+public class ReadReplicaConfig {
+
+    /**
+     * Creates the pool of the primary database from the spring.datasource properties.
+     *
+     * @param properties the spring.datasource properties.
+     * @return HikariDataSource instance.
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the DataSource deciding between the primary and the replicas, with one pool per replica
+     * named replica-1, replica-2, and so on. The replica pools are closed together with it.
+     *
+     * @param primaryDataSource   the pool of the primary database.
+     * @param properties          the spring.datasource properties providing the driver and credentials.
+     * @param replicaUrls         the JDBC URLs of the replicas.
+     * @param stickyWindow        how long the reads of a client keep going to the primary after its write.
+     * @param healthCheckInterval how often the replicas are checked.
+     * @return ReplicaRoutingDataSource instance.
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${web-library.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${web-library.datasource.sticky-primary-window:5s}") Duration stickyWindow,
+            @Value("${web-library.datasource.replica-health-check-interval:10s}") Duration healthCheckInterval) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+            dataSource.setPoolName("replica-" + (replicas.size() + 1));
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, stickyWindow, healthCheckInterval, Clock.systemUTC());
+    }
+
+    /**
+     * Creates the filter carrying the sticky window of each client from request to request.
+     *
+     * @param stickyWindow how long the reads of a client keep going to the primary after its write.
+     * @return ReadYourWritesFilter instance.
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${web-library.datasource.sticky-primary-window:5s}") Duration stickyWindow) {
+        return new ReadYourWritesFilter(stickyWindow, Clock.systemUTC());
+    }
+
+    /**
+     * Exposes the routing DataSource to the application, deferring the choice of database
+     * until the transaction has been set up and the first statement is executed.
+     *
+     * @param replicaRoutingDataSource the routing DataSource.
+     * @return DataSource instance.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Creates the replication stand-in for local H2 replicas.
+     *
+     * @param primaryDataSource        the pool of the primary database.
+     * @param replicaRoutingDataSource the routing DataSource providing the replica pools.
+     * @param interval                 the time between two copies.
+     * @return ReplicationStandIn instance.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("web-library.datasource.replication-stand-in.enabled")
+    public ReplicationStandIn replicationStandIn(
+            HikariDataSource primaryDataSource,
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            @Value("${web-library.datasource.replication-stand-in.interval:1s}") Duration interval) {
+        return new ReplicationStandIn(primaryDataSource, replicaRoutingDataSource.getReplicaDataSources(), interval);
+    }
+}
@@ -0,0 +1,43 @@
+package com.danven.web_library.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Configuration of the Hibernate second-level cache.
+ * The regions themselves are configured in application.conf.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /**
+     * Creates the Caffeine cache manager holding the second-level cache regions.
+     * Every application context gets a manager of its own, so contexts sharing a JVM never see each other's entries.
+     *
+     * @return CacheManager instance, closed together with the application context.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("web-library-" + UUID.randomUUID()), getClass().getClassLoader());
+    }
+
+    /**
+     * Hands the cache manager to Hibernate.
+     *
+     * @param secondLevelCacheManager the cache manager holding the second-level cache regions.
+     * @return HibernatePropertiesCustomizer instance.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+}
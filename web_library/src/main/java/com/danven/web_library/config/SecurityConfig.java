@@ -1,15 +1,26 @@
 package com.danven.web_library.config;
 
+import com.danven.web_library.exceptions.PasswordHashingBusyException;
 import com.danven.web_library.service.CustomerServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.DelegatingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
 
 /**
  * Security configuration class for the web library application.
@@ -25,19 +36,16 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
-    /**
-     * Configures the password encoder bean.
-     *
-     * @return BCryptPasswordEncoder instance for password encoding.
-     */
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${web-library.security.password-hashing.retry-after:5s}")
+    private Duration loginRetryAfter;
 
     /**
      * Configures the DAO authentication provider bean.
-     * Sets the custom user details service and password encoder.
+     * Sets the custom user details service and password encoder. The user details service also
+     * stores the new hash when a password is rehashed on login.
      *
      * @return DaoAuthenticationProvider instance.
      */
@@ -45,7 +53,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(customUserDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -63,6 +72,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     /**
      * Configures HTTP security settings.
      * Disables CSRF protection, configures URL-based authorization, and sets up form-based login and logout.
+     * Only partners and administrators may export the catalog.
+     * Logins rejected because password hashing is saturated are answered with 503 rather than as a wrong password.
      *
      * @param http HttpSecurity instance.
      * @throws Exception if an error occurs while configuring HTTP security.
@@ -72,10 +83,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         http.cors().and().csrf().disable()
                 .authorizeRequests()
                 .antMatchers("/profile/**").authenticated()
+                .antMatchers("/catalog/export").hasAnyAuthority(AuthenticatedUser.ROLE_PARTNER, AuthenticatedUser.ROLE_ADMINISTRATOR)
+                .antMatchers("/actuator/health").permitAll()
+                .antMatchers("/actuator/**").authenticated()
                 .anyRequest().permitAll()
                 .and()
                 .formLogin()
                 .loginPage("/login")
+                .failureHandler(loginFailureHandler())
                 .permitAll()
                 .and()
                 .logout()
@@ -83,4 +98,19 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
         http.headers().frameOptions().disable();
     }
+
+    /**
+     * Creates the handler of failed logins: back to the login page with an error, or 503 with Retry-After
+     * when the password couldn't be checked because too many logins are in progress.
+     *
+     * @return AuthenticationFailureHandler instance.
+     */
+    private AuthenticationFailureHandler loginFailureHandler() {
+        LinkedHashMap<Class<? extends AuthenticationException>, AuthenticationFailureHandler> handlers = new LinkedHashMap<>();
+        handlers.put(PasswordHashingBusyException.class, (request, response, exception) -> {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(loginRetryAfter.toSeconds()));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getMessage());
+        });
+        return new DelegatingAuthenticationFailureHandler(handlers, new SimpleUrlAuthenticationFailureHandler("/login?error"));
+    }
 }
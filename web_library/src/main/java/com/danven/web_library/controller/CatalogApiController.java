@@ -0,0 +1,139 @@
+package com.danven.web_library.controller;
+
+import com.danven.web_library.dto.BookDto;
+import com.danven.web_library.dto.BookSummaryDto;
+import com.danven.web_library.dto.CategoryDto;
+import com.danven.web_library.dto.KeysetPage;
+import com.danven.web_library.exceptions.ValidationException;
+import com.danven.web_library.service.CatalogApiService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Controller class for the read-only JSON catalog API, version 1.
+ * <p>
+ * Every response carries a weak ETag derived from the versions of the returned books, and a request whose
+ * If-None-Match still matches is answered with 304 and no body. For a single book the version is taken from
+ * the catalog snapshot first, so a client revalidating an unchanged book doesn't cause any query.
+ * Responses are sent with {@code Cache-Control: no-cache} instead of the no-store default of Spring Security,
+ * so that clients may keep them and revalidate them.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class CatalogApiController {
+
+    private final CatalogApiService catalogApiService;
+
+    /**
+     * Constructor for CatalogApiController.
+     *
+     * @param catalogApiService the service reading the catalog for the API.
+     */
+    public CatalogApiController(CatalogApiService catalogApiService) {
+        this.catalogApiService = catalogApiService;
+    }
+
+    /**
+     * Handles GET requests for one page of published books.
+     *
+     * @param query      the search query, may be null.
+     * @param categoryId the category the books must belong to, or null for any category.
+     * @param after      the cursor returned with the previous page, or null for the first page.
+     * @param size       the requested page size, or null for the default.
+     * @return the page of books with the cursor of the next page.
+     */
+    @GetMapping("/books")
+    public ResponseEntity<KeysetPage<BookSummaryDto>> getBooks(@RequestParam(value = "q", required = false) String query,
+                                                               @RequestParam(value = "category", required = false) Long categoryId,
+                                                               @RequestParam(value = "after", required = false) Long after,
+                                                               @RequestParam(value = "size", required = false) Integer size) {
+        KeysetPage<BookSummaryDto> page = catalogApiService.getBooks(query, categoryId, after, size);
+        String versions = page.getItems().stream()
+                .map(book -> book.getId() + ":" + book.getVersion())
+                .collect(Collectors.joining(",", "", ";" + page.getNextCursor()));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(weakETag(versions)).body(page);
+    }
+
+    /**
+     * Handles GET requests for a published book with its offer.
+     *
+     * @param bookId  the ID of the book.
+     * @param request the request, checked for If-None-Match.
+     * @return the book, or 404 if it doesn't exist or isn't published.
+     */
+    @GetMapping("/books/{id}")
+    public ResponseEntity<BookDto> getBook(@PathVariable("id") Long bookId, WebRequest request) {
+        Optional<Long> publishedVersion = catalogApiService.findPublishedVersion(bookId);
+        if (publishedVersion.isPresent() && request.checkNotModified(weakETag(bookId + ":" + publishedVersion.get()))) {
+            return null;
+        }
+        return catalogApiService.getBook(bookId)
+                .map(book -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(weakETag(book.getId() + ":" + book.getVersion())).body(book))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Handles GET requests for several published books at once.
+     *
+     * @param bookIds the IDs of the books, at most the configured batch size.
+     * @return the books in the order of the IDs; books that don't exist or aren't published are left out.
+     */
+    @GetMapping("/books/batch")
+    public ResponseEntity<List<BookDto>> getBooks(@RequestParam("ids") List<Long> bookIds) {
+        List<BookDto> books = catalogApiService.getBooks(bookIds);
+        String versions = books.stream()
+                .map(book -> book.getId() + ":" + book.getVersion())
+                .collect(Collectors.joining(","));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(weakETag(versions)).body(books);
+    }
+
+    /**
+     * Handles GET requests for all categories.
+     *
+     * @return the categories.
+     */
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryDto>> getCategories() {
+        List<CategoryDto> categories = catalogApiService.getCategories();
+        String contents = categories.stream()
+                .map(category -> category.getId() + ":" + category.getName())
+                .collect(Collectors.joining(","));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(weakETag(contents)).body(categories);
+    }
+
+    /**
+     * Answers with 400 when a request can't be served, such as a batch of too many books.
+     *
+     * @param e the exception describing the problem.
+     * @return the message as a JSON object.
+     */
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<Map<String, String>> handleValidationException(ValidationException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    }
+
+    /**
+     * Creates a weak ETag from the versions a response was built from.
+     *
+     * @param versions the IDs and versions of the returned resources.
+     * @return the quoted weak ETag.
+     */
+    private static String weakETag(String versions) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(versions.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
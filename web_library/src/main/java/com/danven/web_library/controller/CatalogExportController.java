@@ -0,0 +1,95 @@
+package com.danven.web_library.controller;
+
+import com.danven.web_library.exceptions.ExportBusyException;
+import com.danven.web_library.exceptions.ValidationException;
+import com.danven.web_library.exporting.ExportFormat;
+import com.danven.web_library.service.CatalogExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Controller class for exporting the published catalog as CSV or NDJSON files.
+ * The file is written straight to the response while the catalog is read, without a content length,
+ * so it is sent with chunked transfer encoding and never held in memory as a whole.
+ * Only partners and administrators may export the catalog.
+ */
+@Controller
+public class CatalogExportController {
+
+    private final CatalogExportService catalogExportService;
+
+    /**
+     * Constructor for CatalogExportController.
+     *
+     * @param catalogExportService the service exporting the catalog.
+     */
+    public CatalogExportController(CatalogExportService catalogExportService) {
+        this.catalogExportService = catalogExportService;
+    }
+
+    /**
+     * Handles GET requests for an export of all published offers.
+     * Answers with 304 if the catalog hasn't changed since the time sent in If-Modified-Since.
+     *
+     * @param format   the format of the file, ndjson or csv.
+     * @param request  the request, checked for If-Modified-Since.
+     * @param response the response the file is written to.
+     * @throws IOException if the response can't be written.
+     */
+    @GetMapping("/catalog/export")
+    public void exportCatalog(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                              WebRequest request, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromExtension(format)
+                .orElseThrow(() -> new ValidationException("Unknown export format '" + format + "', use ndjson or csv"));
+        if (request.checkNotModified(catalogExportService.getLastModified().toEpochMilli())) {
+            return;
+        }
+        response.setContentType(new MediaType(exportFormat.getMediaType(), StandardCharsets.UTF_8).toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("catalog." + exportFormat.getExtension())
+                .build()
+                .toString());
+        catalogExportService.exportCatalog(exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * Answers with 400 when the requested format isn't supported.
+     *
+     * @param e the exception describing the problem.
+     * @return the message as plain text.
+     */
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<String> handleValidationException(ValidationException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(e.getMessage() + "\n");
+    }
+
+    /**
+     * Answers with 503 when the maximum number of exports is already running.
+     * The headers of the file set before the export was rejected are dropped.
+     *
+     * @param e        the exception describing the problem.
+     * @param response the response of the rejected export.
+     * @return the message as plain text.
+     */
+    @ExceptionHandler(ExportBusyException.class)
+    public ResponseEntity<String> handleExportBusy(ExportBusyException e, HttpServletResponse response) {
+        response.reset();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(e.getMessage() + "\n");
+    }
+}
@@ -0,0 +1,110 @@
+package com.danven.web_library.controller;
+
+import com.danven.web_library.config.AuthenticatedUser;
+import com.danven.web_library.exceptions.ImportInProgressException;
+import com.danven.web_library.exceptions.ValidationException;
+import com.danven.web_library.importing.CatalogImportReport;
+import com.danven.web_library.importing.ImportFormat;
+import com.danven.web_library.service.CatalogImportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Controller class for importing offers of the logged-in user from CSV or NDJSON files.
+ * The file is sent as the raw request body rather than as a multipart upload, so that it is
+ * streamed into the import instead of being buffered, and isn't subject to the upload size limits.
+ */
+@Controller
+public class CatalogImportController {
+
+    private final CatalogImportService catalogImportService;
+
+    /**
+     * Constructor for CatalogImportController.
+     *
+     * @param catalogImportService the service importing the offers.
+     */
+    public CatalogImportController(CatalogImportService catalogImportService) {
+        this.catalogImportService = catalogImportService;
+    }
+
+    /**
+     * Handles POST requests importing offers for the logged-in user.
+     * The format is taken from the content type, text/csv or application/x-ndjson.
+     *
+     * @param contentType the content type of the request body.
+     * @param principal   the logged-in user.
+     * @param request     the request whose body is the file to import.
+     * @return the import report as plain text, or 415 if the content type isn't supported.
+     * @throws IOException if the request body can't be read.
+     */
+    @PostMapping(value = "/profile/offers/import", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> importOffers(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                               @AuthenticationPrincipal AuthenticatedUser principal,
+                                               HttpServletRequest request) throws IOException {
+        Optional<ImportFormat> format = parseFormat(contentType);
+        if (format.isEmpty()) {
+            String supported = Arrays.stream(ImportFormat.values())
+                    .map(value -> value.getMediaType().toString())
+                    .collect(Collectors.joining(" or "));
+            return plainText(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Send the file as " + supported + "\n");
+        }
+        try (InputStream content = request.getInputStream()) {
+            CatalogImportReport report = catalogImportService.importCatalog(content, format.get(), principal.getId());
+            return plainText(HttpStatus.OK, report.format());
+        }
+    }
+
+    /**
+     * Answers with 400 when the import can't start for the logged-in user.
+     *
+     * @param e the exception describing the problem.
+     * @return the message as plain text.
+     */
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<String> handleValidationException(ValidationException e) {
+        return plainText(HttpStatus.BAD_REQUEST, e.getMessage() + "\n");
+    }
+
+    /**
+     * Answers with 503 when the maximum number of imports is already running.
+     *
+     * @param e the exception describing the problem.
+     * @return the message as plain text.
+     */
+    @ExceptionHandler(ImportInProgressException.class)
+    public ResponseEntity<String> handleImportInProgress(ImportInProgressException e) {
+        return plainText(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage() + "\n");
+    }
+
+    private static Optional<ImportFormat> parseFormat(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        try {
+            return ImportFormat.fromMediaType(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static ResponseEntity<String> plainText(HttpStatus status, String body) {
+        return ResponseEntity.status(status).contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8)).body(body);
+    }
+}
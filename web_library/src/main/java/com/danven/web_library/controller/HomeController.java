@@ -1,14 +1,14 @@
 package com.danven.web_library.controller;
 
-import com.danven.web_library.domain.book.Book;
-import com.danven.web_library.domain.book.Image;
-import com.danven.web_library.repository.BookRepository;
+import com.danven.web_library.catalog.CardFragmentCache;
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.dto.KeysetPage;
+import com.danven.web_library.service.CatalogService;
+import com.danven.web_library.service.CategoryService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
-
-import java.util.Base64;
-import java.util.List;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /**
  * Controller class for handling requests to the home page.
@@ -16,36 +16,51 @@ import java.util.List;
 @Controller
 public class HomeController {
 
-    private final BookRepository bookRepository;
+    private final CatalogService catalogService;
+    private final CategoryService categoryService;
+    private final CardFragmentCache cardFragmentCache;
 
     /**
      * Constructor for HomeController.
      *
-     * @param bookRepository the repository for accessing book data.
+     * @param catalogService    the service for reading the published catalog.
+     * @param categoryService   the service for reading the categories offered in the search form.
+     * @param cardFragmentCache the cache of rendered cards.
      */
-    public HomeController(BookRepository bookRepository) {
-        this.bookRepository = bookRepository;
+    public HomeController(CatalogService catalogService, CategoryService categoryService,
+                          CardFragmentCache cardFragmentCache) {
+        this.catalogService = catalogService;
+        this.categoryService = categoryService;
+        this.cardFragmentCache = cardFragmentCache;
     }
 
     /**
      * Handles GET requests to the root URL ("/").
-     * Retrieves all books with their offers, images, and categories, encodes the images in Base64, and adds them to the model.
+     * Retrieves one page of published catalog cards, optionally narrowed by a search query
+     * and a category, and adds it to the model.
+     * Images are not inlined; the view references them through the image endpoint.
+     * The cards are taken from the cache of rendered cards, so the view only concatenates them.
      *
-     * @param model the model to which the books will be added.
+     * @param searchWord     the search query, or null to list the whole catalog.
+     * @param searchCategory the ID of the category to filter by, or null for any category.
+     * @param after          the cursor of the page to show, or null for the first page.
+     * @param size           the requested page size, or null for the default.
+     * @param model          the model to which the cards will be added.
      * @return the name of the view to render.
      */
     @GetMapping("/")
-    public String home(Model model) {
-        List<Book> books = bookRepository.findAllBooksWithOffersImagesAndCategories();
-        System.err.println(books.size());
-        for (Book book : books) {
-            if (book.getImages() != null) {
-                for (Image image : book.getImages()) {
-                    image.setBase64Image(Base64.getEncoder().encodeToString(image.getImage()));
-                }
-            }
-        }
-        model.addAttribute("books", books);
+    public String home(@RequestParam(name = "searchWord", required = false) String searchWord,
+                       @RequestParam(name = "searchCategory", required = false) Long searchCategory,
+                       @RequestParam(name = "after", required = false) Long after,
+                       @RequestParam(name = "size", required = false) Integer size,
+                       Model model) {
+        KeysetPage<CatalogCard> page = catalogService.searchPublishedCards(searchWord, searchCategory, after, size);
+        model.addAttribute("cards", cardFragmentCache.render(page.getItems()));
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("size", size);
+        model.addAttribute("searchWord", searchWord);
+        model.addAttribute("searchCategory", searchCategory);
+        model.addAttribute("categories", categoryService.getAllCategories());
         return "home";
     }
 }
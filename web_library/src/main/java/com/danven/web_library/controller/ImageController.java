@@ -0,0 +1,106 @@
+package com.danven.web_library.controller;
+
+import com.danven.web_library.domain.book.Image;
+import com.danven.web_library.domain.book.ImageSize;
+import com.danven.web_library.service.ImageService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller class for serving stored book images as raw bytes.
+ * Image content is addressed by its SHA-256 digest and never changes for a given image,
+ * so a response can be cached by the browser indefinitely.
+ */
+@Controller
+public class ImageController {
+
+    private static final String CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .getHeaderValue() + ", immutable";
+
+    private final ImageService imageService;
+
+    /**
+     * Constructor for ImageController.
+     *
+     * @param imageService the service for reading image data.
+     */
+    public ImageController(ImageService imageService) {
+        this.imageService = imageService;
+    }
+
+    /**
+     * Handles GET requests for the original of an image.
+     *
+     * @param id      the ID of the image.
+     * @param request the current request, used for conditional request handling.
+     * @return the image content, or 404 if the image does not exist.
+     */
+    @GetMapping("/images/{id}")
+    public ResponseEntity<Resource> getImage(@PathVariable("id") Long id, WebRequest request) {
+        return serve(id, ImageSize.ORIGINAL, request);
+    }
+
+    /**
+     * Handles GET requests for an image in one of the served sizes.
+     *
+     * @param id      the ID of the image.
+     * @param size    the lower case name of the requested size.
+     * @param request the current request, used for conditional request handling.
+     * @return the image content, or 404 if the image or the size does not exist.
+     */
+    @GetMapping("/images/{id}/{size}")
+    public ResponseEntity<Resource> getImage(@PathVariable("id") Long id, @PathVariable("size") String size,
+                                             WebRequest request) {
+        return ImageSize.fromPathSegment(size)
+                .map(imageSize -> serve(id, imageSize, request))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Serves an image in the given size.
+     * Answers with 304 Not Modified when the client already holds the current version.
+     * While a derivative hasn't been generated yet the original is served instead, without
+     * long-lived caching so that the client picks up the derivative later.
+     *
+     * @param id      the ID of the image.
+     * @param size    the requested size.
+     * @param request the current request, used for conditional request handling.
+     * @return the image content with the content type of the stored format, or 404 if the image does not exist.
+     */
+    private ResponseEntity<Resource> serve(Long id, ImageSize size, WebRequest request) {
+        Optional<Image> image = imageService.getImage(id);
+        if (image.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<String> derivative = image.get().getDigest(size);
+        String digest = derivative.orElse(image.get().getDigest());
+        String cacheControl = derivative.isPresent() ? CACHE_CONTROL : CacheControl.noCache().getHeaderValue();
+        String eTag = "\"" + digest + "\"";
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(304)
+                    .eTag(eTag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+        Optional<Resource> content = imageService.getImageContent(digest);
+        if (content.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .contentType(MediaType.parseMediaType(image.get().getFormat().getMediaType()))
+                .body(content.get());
+    }
+}
@@ -0,0 +1,75 @@
+package com.danven.web_library.controller;
+
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Handles uploads rejected by the multipart size limits before they reach a controller.
+ */
+@ControllerAdvice
+public class UploadExceptionHandler {
+
+    private static final String DEFAULT_TARGET = "/profile/offers";
+
+    /**
+     * Redirects back to the submitting page with an error message when an upload is too large.
+     *
+     * @param e                  the exception raised while parsing the multipart request.
+     * @param request            the rejected request.
+     * @param redirectAttributes attributes for redirecting with messages.
+     * @return the redirect URL to the submitting page, or to the owner's offers page if it is unknown
+     * or belongs to another origin.
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public String handleMaxUploadSizeExceeded(MaxUploadSizeExceededException e, HttpServletRequest request,
+                                              RedirectAttributes redirectAttributes) {
+        redirectAttributes.addFlashAttribute("errorMessage", "Uploaded images are too large");
+        String target = sameOriginPath(request.getHeader("Referer"), request);
+        return "redirect:" + (target != null ? target : DEFAULT_TARGET);
+    }
+
+    /**
+     * Returns the path and query of a referer relative to the context path, provided the referer points
+     * into this application on the origin the request was sent to.
+     *
+     * @param referer the referer header, may be null.
+     * @param request the request.
+     * @return the path and query within the application, or null if the referer can't be redirected to.
+     */
+    private static String sameOriginPath(String referer, HttpServletRequest request) {
+        if (referer == null) {
+            return null;
+        }
+        URI uri;
+        try {
+            uri = new URI(referer);
+        } catch (URISyntaxException ex) {
+            return null;
+        }
+        if (!request.getScheme().equalsIgnoreCase(uri.getScheme())
+                || !request.getServerName().equalsIgnoreCase(uri.getHost())
+                || request.getServerPort() != port(uri)) {
+            return null;
+        }
+        String path = uri.getRawPath();
+        String contextPath = request.getContextPath();
+        if (path == null || !path.startsWith(contextPath + "/") || path.startsWith(contextPath + "//")) {
+            return null;
+        }
+        path = path.substring(contextPath.length());
+        return uri.getRawQuery() != null ? path + "?" + uri.getRawQuery() : path;
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+}
@@ -1,13 +1,17 @@
 package com.danven.web_library.controller;
 
-import com.danven.web_library.config.CustomUserDetailsService;
+import com.danven.web_library.catalog.CardFragmentCache;
+import com.danven.web_library.config.AuthenticatedUser;
 import com.danven.web_library.service.BookService;
 import com.danven.web_library.domain.book.Book;
 import com.danven.web_library.domain.book.Category;
-import com.danven.web_library.domain.book.Image;
 import com.danven.web_library.domain.user.User;
 import com.danven.web_library.dto.BookUpdateDto;
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.service.CatalogService;
 import com.danven.web_library.service.CategoryService;
+import com.danven.web_library.service.CustomerService;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,9 +20,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import javax.servlet.http.HttpSession;
-import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller class for handling user-related requests.
@@ -28,21 +31,29 @@ public class UserController {
 
     private final CategoryService categoryService;
     private final BookService bookService;
-    private final CustomUserDetailsService customUserDetailsService;
+    private final CatalogService catalogService;
+    private final CustomerService customerService;
+    private final CardFragmentCache cardFragmentCache;
 
     /**
      * Constructor for UserController.
      *
-     * @param categoryService the service for handling category data.
-     * @param bookService     the service for book operations.
-     * @param customUserDetailsService     the utility service for user security operations.
+     * @param categoryService   the service for handling category data.
+     * @param bookService       the service for book operations.
+     * @param catalogService    the service for reading catalog cards.
+     * @param customerService   the service for reading users.
+     * @param cardFragmentCache the cache of rendered cards.
      */
     public UserController(CategoryService categoryService,
                           BookService bookService,
-                          CustomUserDetailsService customUserDetailsService) {
+                          CatalogService catalogService,
+                          CustomerService customerService,
+                          CardFragmentCache cardFragmentCache) {
         this.categoryService = categoryService;
         this.bookService = bookService;
-        this.customUserDetailsService = customUserDetailsService;
+        this.catalogService = catalogService;
+        this.customerService = customerService;
+        this.cardFragmentCache = cardFragmentCache;
     }
 
     /**
@@ -63,63 +74,51 @@ public class UserController {
     /**
      * Handles GET requests to the profile page.
      *
-     * @param model the model to pass data to the view.
+     * @param principal the logged-in user.
+     * @param model     the model to pass data to the view.
      * @return the name of the profile view.
      */
     @GetMapping("/profile")
-    public String profilePage(Model model) {
-        User user = customUserDetailsService.getLoggedInUser();
+    public String profilePage(@AuthenticationPrincipal AuthenticatedUser principal, Model model) {
+        User user = customerService.getUserById(principal.getId());
         model.addAttribute("user", user);
         return "profile";
     }
 
     /**
      * Handles GET requests to the user's own offers page.
-     * Retrieves books owned by the logged-in user and adds them to the model.
+     * Retrieves the catalog cards of the books owned by the logged-in user and adds them to the model,
+     * rendered through the cache of rendered cards.
      *
-     * @param model   the model to pass data to the view.
-     * @param session the HTTP session to store books.
+     * @param principal the logged-in user.
+     * @param model     the model to pass data to the view.
      * @return the name of the profile offers view.
      */
     @GetMapping("/profile/offers")
-    public String ownOfferPage(Model model, HttpSession session) {
-        List<Book> books = bookService.getBooksByOwner(customUserDetailsService.getLoggedInUser().getId());
-        for (Book book : books) {
-            if (book.getImages() != null) {
-                for (Image image : book.getImages()) {
-                    image.setBase64Image(Base64.getEncoder().encodeToString(image.getImage()));
-                }
-            }
-        }
-        model.addAttribute("books", books);
-        session.setAttribute("books", books);
-        System.err.println("------------------------------------------------------");
+    public String ownOfferPage(@AuthenticationPrincipal AuthenticatedUser principal, Model model) {
+        List<CatalogCard> cards = catalogService.getCardsByOwner(principal.getId());
+        model.addAttribute("cards", cardFragmentCache.render(cards));
         return "profile_offers";
     }
 
     /**
      * Handles GET requests to the book details page.
-     * Retrieves the details of a specific book and adds them to the model.
+     * Retrieves the details of a specific book of the logged-in user and adds them to the model.
      *
-     * @param bookId  the ID of the book to retrieve details for.
-     * @param model   the model to pass data to the view.
-     * @param session the HTTP session to retrieve books from.
+     * @param bookId    the ID of the book to retrieve details for.
+     * @param principal the logged-in user.
+     * @param model     the model to pass data to the view.
      * @return the name of the book details view or redirects to the profile offers page if the book is not found.
      */
     @GetMapping("/profile/offers/details")
-    public String getBookDetails(@RequestParam("bookId") Long bookId, Model model, HttpSession session) {
-        List<Book> books = (List<Book>) session.getAttribute("books");
-        if (books != null) {
-            Book book = books.stream()
-                    .filter(b -> b.getId().equals(bookId))
-                    .findFirst()
-                    .orElse(null);
-            if (book != null) {
-                List<Category> categories = categoryService.getAllCategories();
-                model.addAttribute("book", book);
-                model.addAttribute("categories", categories);
-                return "book_details";
-            }
+    public String getBookDetails(@RequestParam("bookId") Long bookId, @AuthenticationPrincipal AuthenticatedUser principal,
+                                 Model model) {
+        Optional<Book> book = bookService.getBookOfOwner(bookId, principal.getId());
+        if (book.isPresent()) {
+            List<Category> categories = categoryService.getAllCategories();
+            model.addAttribute("book", book.get());
+            model.addAttribute("categories", categories);
+            return "book_details";
         }
         return "redirect:/profile/offers";
     }
@@ -0,0 +1,84 @@
+package com.danven.web_library.datasource;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Read-your-writes state of the client the current thread is working for.
+ * <p>
+ * After a client's write has been committed, its read-only transactions keep going to the primary until the
+ * sticky window has passed, so that the client reads its own writes despite replication lag; other clients
+ * keep reading from the replicas. Requests bind the context of their client for their duration. A thread
+ * without a bound context, such as an import worker, gets a context of its own, so it still reads what it
+ * has just written itself.
+ */
+public class ReadYourWritesContext {
+
+    private static final ThreadLocal<ReadYourWritesContext> CURRENT = new ThreadLocal<>();
+
+    private final LongConsumer windowListener;
+
+    private volatile long primaryUntil;
+
+    /**
+     * Constructs a new ReadYourWritesContext.
+     *
+     * @param primaryUntil   the time in epoch milliseconds until which reads go to the primary.
+     * @param windowListener called with the new end of the window whenever a write extends it.
+     */
+    public ReadYourWritesContext(long primaryUntil, LongConsumer windowListener) {
+        this.primaryUntil = primaryUntil;
+        this.windowListener = windowListener;
+    }
+
+    /**
+     * Binds a context to the current thread.
+     *
+     * @param context the context of the client the thread works for.
+     */
+    public static void bind(ReadYourWritesContext context) {
+        CURRENT.set(context);
+    }
+
+    /**
+     * Removes the context bound to the current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the context of the current thread, creating one of its own if none is bound.
+     *
+     * @return the context.
+     */
+    public static ReadYourWritesContext current() {
+        ReadYourWritesContext context = CURRENT.get();
+        if (context == null) {
+            context = new ReadYourWritesContext(0, until -> {
+            });
+            CURRENT.set(context);
+        }
+        return context;
+    }
+
+    /**
+     * Returns the time until which reads go to the primary.
+     *
+     * @return the end of the window in epoch milliseconds.
+     */
+    public long getPrimaryUntil() {
+        return primaryUntil;
+    }
+
+    /**
+     * Extends the window after a committed write. A window never shrinks.
+     *
+     * @param until the new end of the window in epoch milliseconds.
+     */
+    void extend(long until) {
+        if (until > primaryUntil) {
+            primaryUntil = until;
+            windowListener.accept(until);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.danven.web_library.datasource;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Filter binding the read-your-writes context of the client to the request.
+ * The end of the client's sticky window travels in a cookie, so it follows the client to every instance
+ * without any server-side state. When a write of the request is committed, the cookie is renewed; a value
+ * further in the future than one window is capped, so a client can't pin itself to the primary.
+ * The filter runs before the security filters, so that a login right after signing up reads the new user
+ * from the primary, but inside the session repository filter, so that storing the session in the database
+ * isn't taken for a write of the client.
+ */
+@Order(SessionRepositoryFilter.DEFAULT_ORDER + 2)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the cookie holding the end of the sticky window in epoch milliseconds.
+     */
+    public static final String COOKIE_NAME = "primary-until";
+
+    private final long stickyWindowMillis;
+
+    private final Clock clock;
+
+    /**
+     * Constructs a new ReadYourWritesFilter.
+     *
+     * @param stickyWindow how long reads of a client keep going to the primary after its write.
+     * @param clock        the clock measuring the sticky window.
+     */
+    public ReadYourWritesFilter(Duration stickyWindow, Clock clock) {
+        this.stickyWindowMillis = stickyWindow.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long primaryUntil = Math.min(cookieValue(request), clock.millis() + stickyWindowMillis);
+        ReadYourWritesContext.bind(new ReadYourWritesContext(primaryUntil, until -> renewCookie(request, response, until)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.unbind();
+        }
+    }
+
+    /**
+     * Reads the end of the sticky window from the request.
+     *
+     * @param request the request.
+     * @return the end of the window, or 0 if the cookie is missing or malformed.
+     */
+    private static long cookieValue(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sends the new end of the sticky window to the client, unless the response has already been committed.
+     */
+    private void renewCookie(HttpServletRequest request, HttpServletResponse response, long until) {
+        if (response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+        cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setMaxAge((int) Math.max(1, (until - clock.millis() + 999) / 1000));
+        response.addCookie(cookie);
+    }
+}
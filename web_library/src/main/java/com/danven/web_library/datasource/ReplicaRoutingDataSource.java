@@ -0,0 +1,379 @@
+package com.danven.web_library.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * DataSource sending read-only transactions to read replicas and everything else to the primary.
+ * <p>
+ * The route is decided when a connection is requested, from the read-only flag of the current Spring
+ * transaction; the DataSource must therefore be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that the connection is
+ * only requested once the transaction has been set up. Replicas are used round-robin.
+ * <p>
+ * A replica whose connection can't be obtained is taken out of rotation and the read falls back to the
+ * next replica, or finally to the primary; a background check puts it back once it answers again.
+ * <p>
+ * Because replicas lag behind the primary, the reads of a client still go to the primary within the sticky
+ * window after one of its writes, so that it reads its own writes; see {@link ReadYourWritesContext}.
+ * Connections to the primary watch the statements executed on them, and the window is only started once
+ * an insert, update, delete or schema change has actually been committed; a read-write transaction that
+ * writes nothing leaves it alone. Every read within one window after the DataSource has been created goes
+ * to the primary, which gives the replicas time to catch up with the startup writes.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private static final Pattern WRITE_STATEMENT = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)*(?:insert|update|delete|merge|upsert|replace|create|alter|drop|truncate)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final long stickyWindowMillis;
+
+    private final Clock clock;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final ScheduledExecutorService healthChecker;
+
+    private final long warmUpUntil;
+
+    /**
+     * Constructs a new ReplicaRoutingDataSource.
+     *
+     * @param primary             the DataSource of the primary database.
+     * @param replicas            the DataSources of the replicas by name, in rotation order.
+     * @param stickyWindow        how long the reads of a client keep going to the primary after its write.
+     * @param healthCheckInterval how often the replicas are checked.
+     * @param clock               the clock measuring the sticky window.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration stickyWindow, Duration healthCheckInterval, Clock clock) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>();
+        new LinkedHashMap<>(replicas).forEach((name, dataSource) -> list.add(new Replica(name, dataSource)));
+        this.replicas = Collections.unmodifiableList(list);
+        this.stickyWindowMillis = stickyWindow.toMillis();
+        this.clock = clock;
+        this.warmUpUntil = clock.millis() + stickyWindowMillis;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Obtains a connection from the primary or from a replica, depending on the current transaction
+     * and on the sticky window of the client.
+     *
+     * @param connector obtains a connection from the chosen DataSource.
+     * @return the connection.
+     * @throws SQLException if no connection can be obtained from the primary.
+     */
+    private Connection route(Connector connector) throws SQLException {
+        if (!isReadOnlyTransaction()) {
+            return trackWrites(connector.connect(primary));
+        }
+        long now = clock.millis();
+        if (now < warmUpUntil || now < ReadYourWritesContext.current().getPrimaryUntil()) {
+            return connector.connect(primary);
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = connector.connect(replica.dataSource);
+                log.debug("Routing read-only transaction to replica {}", replica.name);
+                return connection;
+            } catch (SQLException e) {
+                replica.healthy = false;
+                log.warn("Taking replica {} out of rotation: {}", replica.name, e.getMessage());
+            }
+        }
+        return connector.connect(primary);
+    }
+
+    /**
+     * Returns the DataSources of all replicas, whether in rotation or not.
+     *
+     * @return the replica DataSources by name, in rotation order.
+     */
+    public Map<String, DataSource> getReplicaDataSources() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach(replica -> dataSources.put(replica.name, replica.dataSource));
+        return dataSources;
+    }
+
+    /**
+     * Returns the names of the replicas currently in rotation.
+     *
+     * @return the names of the healthy replicas.
+     */
+    public List<String> getHealthyReplicas() {
+        List<String> names = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                names.add(replica.name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Checks every replica and updates whether it is in rotation.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.warn(healthy ? "Putting replica {} back into rotation" : "Taking replica {} out of rotation", replica.name);
+                replica.healthy = healthy;
+            }
+        }
+    }
+
+    /**
+     * Stops the health check and closes the replica DataSources that can be closed.
+     * The primary is left open.
+     *
+     * @throws Exception if closing a replica DataSource fails.
+     */
+    @Override
+    public void close() throws Exception {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the connection requested now belongs to a read-only transaction.
+     *
+     * @return true if a read-only transaction is active, false otherwise.
+     */
+    private boolean isReadOnlyTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Wraps a connection to the primary so that the statements writing through it start the sticky window
+     * of the current client.
+     *
+     * @param connection the connection to the primary.
+     * @return the wrapped connection.
+     */
+    private Connection trackWrites(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new WriteTrackingHandler(connection, ReadYourWritesContext.current()));
+    }
+
+    /**
+     * Checks whether a SQL statement changes data or schema.
+     *
+     * @param sql the statement.
+     * @return true if the statement writes, false otherwise.
+     */
+    static boolean isWrite(String sql) {
+        return sql != null && WRITE_STATEMENT.matcher(sql).find();
+    }
+
+    /**
+     * Obtains a connection from a DataSource.
+     */
+    @FunctionalInterface
+    private interface Connector {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    /**
+     * Handler of a connection to the primary, watching the statements created from it.
+     * The first write of a transaction starts the sticky window of the client once the transaction has been
+     * committed; a write outside of a transaction starts it right away.
+     */
+    private final class WriteTrackingHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private final ReadYourWritesContext context;
+
+        private boolean commitListenerRegistered;
+
+        private WriteTrackingHandler(Connection target, ReadYourWritesContext context) {
+            this.target = target;
+            this.context = context;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Write-tracking connection to " + target;
+                default:
+                    break;
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement) {
+                boolean prepared = method.getName().startsWith("prepare");
+                boolean write = prepared && args != null && args.length > 0 && isWrite((String) args[0]);
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{method.getReturnType()},
+                        new StatementHandler((Statement) result, prepared, write));
+            }
+            return result;
+        }
+
+        /**
+         * Starts the sticky window once the current write has been committed.
+         */
+        private void onWrite() {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()
+                    || !TransactionSynchronizationManager.isSynchronizationActive()) {
+                context.extend(clock.millis() + stickyWindowMillis);
+                return;
+            }
+            if (commitListenerRegistered) {
+                return;
+            }
+            commitListenerRegistered = true;
+            // afterCommit runs before any afterCompletion callback, so reads of AFTER_COMMIT event listeners
+            // on this thread already fall into the window.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    context.extend(clock.millis() + stickyWindowMillis);
+                }
+            });
+        }
+
+        /**
+         * Handler of a statement, reporting executed writes to the connection.
+         */
+        private final class StatementHandler implements InvocationHandler {
+
+            private final Statement target;
+
+            private final boolean prepared;
+
+            private final boolean preparedWrite;
+
+            private boolean batchedWrite;
+
+            private StatementHandler(Statement target, boolean prepared, boolean preparedWrite) {
+                this.target = target;
+                this.prepared = prepared;
+                this.preparedWrite = preparedWrite;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                switch (name) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return target.toString();
+                    default:
+                        break;
+                }
+                boolean withSql = !prepared && args != null && args.length > 0 && args[0] instanceof String;
+                if (name.equals("addBatch") && withSql && isWrite((String) args[0])) {
+                    batchedWrite = true;
+                }
+                Object result = invokeTarget(target, method, args);
+                if (name.startsWith("execute")
+                        && (preparedWrite || batchedWrite || (withSql && isWrite((String) args[0])))) {
+                    onWrite();
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Invokes a method on the object behind a proxy, rethrowing what the method throws.
+     */
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * One replica together with whether it is in rotation.
+     */
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.danven.web_library.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for database replication between H2 instances, for running with read replicas locally.
+ * <p>
+ * On its first run it copies the schema of the primary to every replica; from then on it periodically
+ * copies the rows of every table. The primary is read in a single repeatable-read transaction and every
+ * replica is rewritten in a single transaction, so readers of a replica always see a consistent state of the
+ * primary that lags behind it by up to one interval.
+ */
+public class ReplicationStandIn implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationStandIn.class);
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final DataSource primary;
+
+    private final Map<String, DataSource> replicas;
+
+    private final long intervalMillis;
+
+    private final ScheduledExecutorService scheduler;
+
+    private boolean schemaCopied;
+
+    /**
+     * Constructs a new ReplicationStandIn.
+     *
+     * @param primary  the DataSource of the primary database.
+     * @param replicas the DataSources of the replicas by name.
+     * @param interval the time between two copies.
+     */
+    public ReplicationStandIn(DataSource primary, Map<String, DataSource> replicas, Duration interval) {
+        this.primary = primary;
+        this.replicas = Map.copyOf(replicas);
+        this.intervalMillis = interval.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Copies the primary to the replicas right away and then once per interval.
+     * Called once the application context, and with it the schema of the primary, has been created.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::replicateQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Copies the current state of the primary to every replica.
+     *
+     * @throws SQLException if the primary can't be read or a replica can't be written.
+     */
+    public synchronized void replicate() throws SQLException {
+        try (Connection source = primary.getConnection()) {
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                if (!schemaCopied) {
+                    List<String> schema = schemaScript(source);
+                    for (DataSource replica : replicas.values()) {
+                        copySchema(schema, replica);
+                    }
+                    schemaCopied = true;
+                }
+                List<String> tables = tables(source);
+                for (DataSource replica : replicas.values()) {
+                    copyTables(source, replica, tables);
+                }
+            } finally {
+                source.rollback();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void replicateQuietly() {
+        try {
+            replicate();
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Replication to {} failed: {}", replicas.keySet(), e.toString());
+        }
+    }
+
+    /**
+     * Returns the statements recreating the schema of the primary without its data.
+     */
+    private static List<String> schemaScript(Connection source) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        try (Statement statement = source.createStatement();
+             ResultSet script = statement.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS")) {
+            while (script.next()) {
+                statements.add(script.getString(1));
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Recreates the schema on a replica. Referential integrity is switched off, because tables are copied
+     * one after another and a replica never receives writes of its own.
+     */
+    private static void copySchema(List<String> schema, DataSource replica) throws SQLException {
+        try (Connection target = replica.getConnection(); Statement statement = target.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : schema) {
+                if (!sql.startsWith("--") && !sql.startsWith("CREATE USER")) {
+                    statement.execute(sql);
+                }
+            }
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+    }
+
+    private static List<String> tables(Connection source) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ResultSet result = source.getMetaData().getTables(null, "PUBLIC", null, new String[]{"TABLE", "BASE TABLE"})) {
+            while (result.next()) {
+                tables.add(result.getString("TABLE_NAME"));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Replaces the rows of all tables of a replica with those of the primary in a single replica transaction.
+     */
+    private static void copyTables(Connection source, DataSource replica, List<String> tables) throws SQLException {
+        try (Connection target = replica.getConnection()) {
+            target.setAutoCommit(false);
+            try {
+                for (String table : tables) {
+                    copyTable(source, target, "\"PUBLIC\".\"" + table + "\"");
+                }
+                target.commit();
+            } catch (SQLException e) {
+                target.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void copyTable(Connection source, Connection target, String table) throws SQLException {
+        try (Statement delete = target.createStatement()) {
+            delete.executeUpdate("DELETE FROM " + table);
+        }
+        try (Statement select = source.createStatement(); ResultSet rows = select.executeQuery("SELECT * FROM " + table)) {
+            int columns = rows.getMetaData().getColumnCount();
+            String placeholders = String.join(", ", Collections.nCopies(columns, "?"));
+            try (PreparedStatement insert = target.prepareStatement("INSERT INTO " + table + " VALUES (" + placeholders + ")")) {
+                int batched = 0;
+                while (rows.next()) {
+                    for (int column = 1; column <= columns; column++) {
+                        insert.setObject(column, rows.getObject(column));
+                    }
+                    insert.addBatch();
+                    if (++batched % INSERT_BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+}
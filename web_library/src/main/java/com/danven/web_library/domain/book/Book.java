@@ -1,41 +1,49 @@
 package com.danven.web_library.domain.book;
 
+import com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator;
 import com.danven.web_library.domain.offer.Offer;
 import com.danven.web_library.exceptions.ValidationException;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Where;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import java.io.Serializable;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Abstract class representing a book in the web library system.
  * This class serves as the base class for different types of books.
  */
-@NamedEntityGraphs({
-        @NamedEntityGraph(
-                name = "book-with-offer-images-categories",
-                attributeNodes = {
-                        @NamedAttributeNode("offer"),
-                        @NamedAttributeNode("images"),
-                        @NamedAttributeNode("categories")
-                }
-        )
-})
 @Entity
 @Table(name = "BOOK")
 @Inheritance(strategy = InheritanceType.JOINED)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 public abstract class Book implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @GenericGenerator(name = "book_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "book_seq"))
     @Column(name = "book_id")
     protected Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    protected long version;
+
     @NotBlank(message = "Name can't be blank")
     @Column(name = "name", nullable = false)
     protected String name;
@@ -61,11 +69,23 @@ public abstract class Book implements Serializable {
             joinColumns = {@JoinColumn(name = "book_id")},
             inverseJoinColumns = {@JoinColumn(name = "category_id")}
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-categories")
+    @BatchSize(size = 16)
     protected Set<Category> categories = new HashSet<>();
 
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 16)
+    @OrderBy("position")
     protected Set<Image> images = new HashSet<>();
 
+    /**
+     * Read-only view of {@link #images} restricted to the preview image, so that listings can
+     * fetch at most one image row per book.
+     */
+    @OneToMany(mappedBy = "book")
+    @Where(clause = "is_preview = true")
+    protected Set<Image> previewImages = new HashSet<>();
+
     @OneToOne(optional = false, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "offer_id")
     protected Offer offer;
@@ -105,9 +125,7 @@ public abstract class Book implements Serializable {
     public void addCategory(Category category) {
         if (category != null && !this.categories.contains(category)) {
             this.categories.add(category);
-            if (!category.getBooks().contains(this)) {
-                category.addBook(this);
-            }
+            category.addBook(this);
         }
     }
 
@@ -119,9 +137,7 @@ public abstract class Book implements Serializable {
     public void removeCategory(Category category) {
         if (category != null && this.categories.contains(category)) {
             this.categories.remove(category);
-            if (category.getBooks().contains(this)) {
-                category.removeBook(this);
-            }
+            category.removeBook(this);
         }
     }
 
@@ -133,6 +149,9 @@ public abstract class Book implements Serializable {
     public void addImage(Image image) {
         validateImage(image);
         images.add(image);
+        if (image.isPreview()) {
+            previewImages.add(image);
+        }
     }
 
     /**
@@ -143,6 +162,7 @@ public abstract class Book implements Serializable {
     public void removeImage(Image image) {
         if (images.contains(image)) {
             images.remove(image);
+            previewImages.remove(image);
             image.setBook(null);
         }
     }
@@ -159,6 +179,9 @@ public abstract class Book implements Serializable {
         if (image.getBook() != this) {
             throw new ValidationException("Image is attached to another book");
         }
+        if (image.isPreview() && images.stream().anyMatch(other -> other.isPreview() && other != image)) {
+            throw new ValidationException("Book can have only one preview image");
+        }
     }
 
     /**
@@ -172,6 +195,27 @@ public abstract class Book implements Serializable {
         return id;
     }
 
+    /**
+     * Gets the version of the book, incremented by every update of the book or its categories.
+     * The images are mapped by the image side, so changing them alone doesn't increment the version;
+     * code replacing the images of a book has to force the increment, as BookServiceImpl does.
+     *
+     * @return the version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the version of the book together with its offer.
+     * Either part only ever grows, so the sum changes whenever the book or its offer has been updated.
+     *
+     * @return the version of the book and its offer.
+     */
+    public long getAggregateVersion() {
+        return version + offer.getVersion();
+    }
+
     public String getName() {
         return name;
     }
@@ -220,8 +264,29 @@ public abstract class Book implements Serializable {
         this.categories = categories;
     }
 
+    /**
+     * Gets the images of the book ordered by their position.
+     *
+     * @return the ordered images.
+     */
     public Set<Image> getImages() {
-        return new HashSet<>(images);
+        return images.stream()
+                .sorted(Comparator.comparingInt(Image::getPosition))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Gets the image shown for the book in listings.
+     * Uses the already loaded images when available, otherwise only the preview image is loaded.
+     *
+     * @return the preview image, or null if the book has none.
+     */
+    public Image getPreviewImage() {
+        Set<Image> candidates = Hibernate.isInitialized(images) ? images : previewImages;
+        return candidates.stream()
+                .filter(Image::isPreview)
+                .min(Comparator.comparingInt(Image::getPosition))
+                .orElse(null);
     }
 
     public void setImages(Set<Image> images) {
@@ -1,6 +1,13 @@
 package com.danven.web_library.domain.book;
 
+import com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -11,13 +18,17 @@ import java.util.Set;
 
 /**
  * Represents a category of books.
+ * Categories are never changed once created, so they are kept in a read-only second-level cache region.
  */
 @Entity
 @Table(name = "CATEGORY")
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "category")
 public class Category implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @GenericGenerator(name = "category_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "category_seq"))
     @Column(name = "category_id")
     private Long id;
 
@@ -26,6 +37,7 @@ public class Category implements Serializable {
     private String name;
 
     @ManyToMany(mappedBy = "categories", fetch = FetchType.LAZY)
+    @BatchSize(size = 16)
     private Set<Book> books = new HashSet<>();
 
     /**
@@ -45,12 +57,16 @@ public class Category implements Serializable {
 
     /**
      * Adds a book to the category.
+     * The association is owned by the book, so the books of the category are only updated if they
+     * have already been loaded, instead of loading every book of the category to add a single one.
      *
      * @param book the book to add.
      */
     public void addBook(Book book) {
-        if (book != null && !this.books.contains(book)) {
-            this.books.add(book);
+        if (book != null) {
+            if (Hibernate.isInitialized(this.books)) {
+                this.books.add(book);
+            }
             if (!book.getCategories().contains(this)) {
                 book.addCategory(this);
             }
@@ -59,12 +75,15 @@ public class Category implements Serializable {
 
     /**
      * Removes a book from the category.
+     * Like {@link #addBook(Book)}, the books of the category are only updated if they have been loaded.
      *
      * @param book the book to remove.
      */
     public void removeBook(Book book) {
-        if (book != null && this.books.contains(book)) {
-            this.books.remove(book);
+        if (book != null) {
+            if (Hibernate.isInitialized(this.books)) {
+                this.books.remove(book);
+            }
             if (book.getCategories().contains(this)) {
                 book.removeCategory(this);
             }
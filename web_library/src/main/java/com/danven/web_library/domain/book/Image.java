@@ -1,29 +1,48 @@
 package com.danven.web_library.domain.book;
 
+import com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator;
 import com.danven.web_library.exceptions.ValidationException;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Represents an image associated with a book.
+ * The image content itself lives in the image store; the entity only keeps the
+ * SHA-256 digest that addresses the content, its size and its format, plus the digests
+ * of the scaled derivatives once they have been generated.
  */
 @Entity
 @Table(name = "IMAGE")
 public class Image implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_seq")
+    @GenericGenerator(name = "image_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "image_seq"))
     @Column(name = "image_id")
     private Long id;
 
     @NotNull(message = "Image can't be null")
-    @Lob
-    @Column(name = "image", nullable = false)
-    protected byte[] image;
+    @Column(name = "digest", nullable = false, length = 64)
+    private String digest;
+
+    @Min(value = 1, message = "Image can't be empty")
+    @Column(name = "size_in_bytes", nullable = false)
+    private long sizeInBytes;
+
+    @Column(name = "card_digest", length = 64)
+    private String cardDigest;
+
+    @Column(name = "detail_digest", length = 64)
+    private String detailDigest;
 
     @NotNull(message = "Format can't be null")
     @Column(name = "image_format")
@@ -33,13 +52,14 @@ public class Image implements Serializable {
     @Column(name = "is_preview")
     private boolean isPreview;
 
-    @ManyToOne(optional = false)
+    @Min(value = 0, message = "Position can't be negative")
+    @Column(name = "display_position", nullable = false)
+    private int position;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false, updatable = false)
     private Book book;
 
-    @Transient
-    private String base64Image;
-
     /**
      * Default constructor for Image.
      */
@@ -49,15 +69,19 @@ public class Image implements Serializable {
     /**
      * Constructs a new Image with the specified details.
      *
-     * @param image     the byte array representing the image.
-     * @param format    the format of the image.
-     * @param isPreview whether the image is a preview image.
-     * @param book      the book to which the image is associated.
+     * @param digest      the SHA-256 digest of the stored image content.
+     * @param sizeInBytes the size of the stored image content.
+     * @param format      the format of the image.
+     * @param isPreview   whether the image is a preview image.
+     * @param position    the position of the image among the images of the book.
+     * @param book        the book to which the image is associated.
      */
-    public Image(byte[] image, ImageFormat format, boolean isPreview, Book book) {
-        this.image = image;
+    public Image(String digest, long sizeInBytes, ImageFormat format, boolean isPreview, int position, Book book) {
+        this.digest = digest;
+        this.sizeInBytes = sizeInBytes;
         this.format = format;
         this.isPreview = isPreview;
+        this.position = position;
         setBook(book);
     }
 
@@ -87,21 +111,38 @@ public class Image implements Serializable {
     }
 
     /**
-     * Gets the byte array representing the image.
+     * Gets the SHA-256 digest addressing the image content in the image store.
      *
-     * @return the image byte array.
+     * @return the hex encoded digest.
      */
-    public byte[] getImage() {
-        return image;
+    public String getDigest() {
+        return digest;
     }
 
     /**
-     * Sets the byte array representing the image.
+     * Gets the size of the image content.
      *
-     * @param image the image byte array to set.
+     * @return the size in bytes.
      */
-    public void setImage(byte[] image) {
-        this.image = image;
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Gets the digest of the content to serve for the given size.
+     *
+     * @param size the requested size.
+     * @return the digest of the derivative, or an empty Optional if it hasn't been generated yet.
+     */
+    public Optional<String> getDigest(ImageSize size) {
+        switch (size) {
+            case CARD:
+                return Optional.ofNullable(cardDigest);
+            case DETAIL:
+                return Optional.ofNullable(detailDigest);
+            default:
+                return Optional.of(digest);
+        }
     }
 
     /**
@@ -141,30 +182,30 @@ public class Image implements Serializable {
     }
 
     /**
-     * Gets the book associated with the image.
+     * Gets the position of the image among the images of the book.
      *
-     * @return the associated book.
+     * @return the zero-based position.
      */
-    public Book getBook() {
-        return book;
+    public int getPosition() {
+        return position;
     }
 
     /**
-     * Gets the Base64 representation of the image.
+     * Sets the position of the image among the images of the book.
      *
-     * @return the Base64 image string.
+     * @param position the zero-based position to set.
      */
-    public String getBase64Image() {
-        return base64Image;
+    public void setPosition(int position) {
+        this.position = position;
     }
 
     /**
-     * Sets the Base64 representation of the image.
+     * Gets the book associated with the image.
      *
-     * @param base64Image the Base64 image string to set.
+     * @return the associated book.
      */
-    public void setBase64Image(String base64Image) {
-        this.base64Image = base64Image;
+    public Book getBook() {
+        return book;
     }
 
     @Override
@@ -172,22 +213,22 @@ public class Image implements Serializable {
         if (this == o) return true;
         if (!(o instanceof Image)) return false;
         Image image1 = (Image) o;
-        return isPreview == image1.isPreview && Objects.equals(id, image1.id) && Arrays.equals(image, image1.image) && format == image1.format && Objects.equals(book, image1.book);
+        return isPreview == image1.isPreview && position == image1.position && Objects.equals(id, image1.id) && Objects.equals(digest, image1.digest) && format == image1.format && Objects.equals(book, image1.book);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(id, format, isPreview, book);
-        result = 31 * result + Arrays.hashCode(image);
-        return result;
+        return Objects.hash(id, digest, format, isPreview, position, book);
     }
 
     @Override
     public String toString() {
         return "Image{" +
                 "id=" + id +
+                ", digest='" + digest + '\'' +
                 ", imageFormat=" + format +
                 ", isPreview=" + isPreview +
+                ", position=" + position +
                 '}';
     }
 }
@@ -5,5 +5,41 @@ package com.danven.web_library.domain.book;
  */
 public enum ImageFormat {
 
-    PNG,JPG,JPEG
+    PNG("image/png", "png"), JPG("image/jpeg", "jpg"), JPEG("image/jpeg", "jpg");
+
+    private final String mediaType;
+
+    private final String encoderName;
+
+    ImageFormat(String mediaType, String encoderName) {
+        this.mediaType = mediaType;
+        this.encoderName = encoderName;
+    }
+
+    /**
+     * Gets the media type used when the image is served over HTTP.
+     *
+     * @return the media type of the format.
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Gets the informal format name understood by {@link javax.imageio.ImageIO}.
+     *
+     * @return the encoder name of the format.
+     */
+    public String getEncoderName() {
+        return encoderName;
+    }
+
+    /**
+     * Checks whether the format can carry an alpha channel.
+     *
+     * @return true if the format supports transparency, false otherwise.
+     */
+    public boolean supportsTransparency() {
+        return this == PNG;
+    }
 }
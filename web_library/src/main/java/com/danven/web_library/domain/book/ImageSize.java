@@ -0,0 +1,40 @@
+package com.danven.web_library.domain.book;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Enumeration representing the sizes in which an image is served.
+ * Every size except the original is a derivative scaled down to the given maximum width.
+ */
+public enum ImageSize {
+
+    CARD(480), DETAIL(1200), ORIGINAL(0);
+
+    private final int maxWidth;
+
+    ImageSize(int maxWidth) {
+        this.maxWidth = maxWidth;
+    }
+
+    /**
+     * Gets the maximum width of the derivative in pixels.
+     *
+     * @return the maximum width, or 0 for the original.
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Resolves a size from its lower case name as used in image URLs.
+     *
+     * @param name the lower case name of the size.
+     * @return the matching size, or an empty Optional if there is none.
+     */
+    public static Optional<ImageSize> fromPathSegment(String name) {
+        return Arrays.stream(values())
+                .filter(size -> size.name().equalsIgnoreCase(name))
+                .findFirst();
+    }
+}
@@ -54,6 +54,15 @@ public class PaperBookWithDisk extends PaperBook implements IDiskBook {
         this.diskFormat = diskFormat;
     }
 
+    /**
+     * Checks whether the disk is glued to the book.
+     *
+     * @return true if the disk is glued to the book.
+     */
+    public boolean isDiskIsGlued() {
+        return diskIsGlued;
+    }
+
     /**
      * Sets the duration of the disk in hours.
      *
@@ -0,0 +1,48 @@
+package com.danven.web_library.domain.catalog;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Entry of the catalog change log, shared by all instances through the database.
+ * Every increment of the {@link CatalogRevision} records which book it was for, so that other instances
+ * can refresh just that book. A change without a book, as made by an import, stands for the whole catalog.
+ */
+@Entity
+@Table(name = "catalog_change")
+public class CatalogChange {
+
+    @Id
+    @Column(name = "revision")
+    private Long revision;
+
+    @Column(name = "book_id")
+    private Long bookId;
+
+    /**
+     * Default constructor for JPA.
+     */
+    protected CatalogChange() {
+    }
+
+    /**
+     * Constructs a new CatalogChange.
+     *
+     * @param revision the catalog revision the change produced.
+     * @param bookId   the ID of the changed book, or null if the whole catalog may have changed.
+     */
+    public CatalogChange(long revision, Long bookId) {
+        this.revision = revision;
+        this.bookId = bookId;
+    }
+
+    public Long getRevision() {
+        return revision;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+}
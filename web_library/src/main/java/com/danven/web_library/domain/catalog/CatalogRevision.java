@@ -0,0 +1,43 @@
+package com.danven.web_library.domain.catalog;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Counter of the changes made to the catalog, shared by all instances through the database.
+ * There is a single row, incremented by every committed book update and import, so that an instance
+ * can tell from the revision whether another instance has changed the catalog since it last looked.
+ */
+@Entity
+@Table(name = "catalog_revision")
+public class CatalogRevision {
+
+    /**
+     * ID of the only row.
+     */
+    public static final Long ID = 1L;
+
+    @Id
+    @Column(name = "catalog_revision_id")
+    private Long id;
+
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    /**
+     * Constructs the revision counter at revision 0.
+     */
+    public CatalogRevision() {
+        this.id = ID;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+}
@@ -0,0 +1,44 @@
+package com.danven.web_library.domain.config.custom_generators;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence identifier generator handing out identifiers from blocks reserved with a single sequence call.
+ * Every call reserves the allocation size configured by {@link #ALLOCATION_SIZE_SETTING} and the pooled-lo
+ * optimizer hands out the values from the returned one upwards, so the sequence value is the lowest
+ * identifier of a block and nodes sharing the database never hand out the same identifier.
+ * <p>
+ * The increment of every sequence in the database must equal the allocation size; Hibernate refuses
+ * to start if they differ.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Name to reference this generator by in {@link org.hibernate.annotations.GenericGenerator#strategy()}.
+     */
+    public static final String STRATEGY = "com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator";
+
+    /**
+     * Hibernate setting holding the number of identifiers reserved per sequence call.
+     */
+    public static final String ALLOCATION_SIZE_SETTING = "web_library.id.allocation_size";
+
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE_SETTING,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -126,6 +126,7 @@ public class OptionalStringType implements UserType {
 
     /**
      * Disassembles the object for caching.
+     * Optional is not serializable, so the cached representation is the wrapped value or null.
      *
      * @param value the object to disassemble.
      * @return the disassembled object.
@@ -133,7 +134,7 @@ public class OptionalStringType implements UserType {
      */
     @Override
     public Serializable disassemble(Object value) throws HibernateException {
-        return (Serializable) value;
+        return value == null ? null : (Serializable) ((Optional<?>) value).orElse(null);
     }
 
     /**
@@ -146,7 +147,7 @@ public class OptionalStringType implements UserType {
      */
     @Override
     public Object assemble(Serializable cached, Object owner) throws HibernateException {
-        return cached;
+        return Optional.ofNullable(cached);
     }
 
     /**
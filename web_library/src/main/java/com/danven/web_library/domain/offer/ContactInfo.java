@@ -1,11 +1,15 @@
 package com.danven.web_library.domain.offer;
 
+import com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator;
 import com.danven.web_library.domain.config.custom_types.OptionalStringType;
 import com.danven.web_library.domain.config.custom_validators.OptionalStringNotEmpty;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.TypeDef;
 import org.hibernate.annotations.TypeDefs;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -25,7 +29,9 @@ import java.util.Optional;
 public class ContactInfo implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_info_seq")
+    @GenericGenerator(name = "contact_info_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "contact_info_seq"))
     @Column(name = "contact_info_id")
     private Long id;
 
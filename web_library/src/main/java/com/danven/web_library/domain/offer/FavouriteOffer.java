@@ -1,7 +1,11 @@
 package com.danven.web_library.domain.offer;
 
+import com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator;
 import com.danven.web_library.domain.config.custom_validators.ValidFavouriteOffer;
 import com.danven.web_library.domain.user.Customer;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -18,7 +22,9 @@ public class FavouriteOffer {
     private static String defaultDescription = "No description";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favourite_offer_seq")
+    @GenericGenerator(name = "favourite_offer_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "favourite_offer_seq"))
     @Column(name = "favourite_offer_id")
     private Long id;
 
@@ -1,6 +1,7 @@
 package com.danven.web_library.domain.offer;
 
 import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator;
 import com.danven.web_library.domain.config.custom_types.EnumSetType;
 import com.danven.web_library.domain.config.custom_types.OptionalDoubleType;
 import com.danven.web_library.domain.config.custom_types.OptionalLocalDateTimeType;
@@ -8,9 +9,15 @@ import com.danven.web_library.domain.config.custom_validators.ValidOfferTypes;
 import com.danven.web_library.domain.report.Report;
 
 import com.danven.web_library.domain.user.Customer;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.TypeDef;
 import org.hibernate.annotations.TypeDefs;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.ValidationException;
@@ -31,13 +38,20 @@ import java.util.*;
                 parameters = @org.hibernate.annotations.Parameter(name = "enumClass", value = "com.danven.web_library.domain.offer.OfferType"))
 })
 @ValidOfferTypes
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "offer")
 public class Offer implements BasicOffer, DiscountOffer, LimitedTimeOffer, Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offer_seq")
+    @GenericGenerator(name = "offer_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "offer_seq"))
     @Column(name = "offer_id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(name = "price", nullable = false)
     @Min(value = 0, message = "Price cannot be lower or equal to zero")
     private double price;
@@ -53,6 +67,7 @@ public class Offer implements BasicOffer, DiscountOffer, LimitedTimeOffer, Seria
     private ContactInfo contactInfo;
 
     @OneToMany(mappedBy = "offer", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 16)
     private Set<Report> reports = new HashSet<>();
 
     @Type(type = "optionalLocalDateTime")
@@ -80,6 +95,7 @@ public class Offer implements BasicOffer, DiscountOffer, LimitedTimeOffer, Seria
     private Customer owner;
 
     @OneToMany(mappedBy = "offer", cascade = {CascadeType.ALL}, orphanRemoval = true)
+    @BatchSize(size = 16)
     private Set<FavouriteOffer> favouriteOffers = new HashSet<>();
 
     /**
@@ -404,6 +420,15 @@ public class Offer implements BasicOffer, DiscountOffer, LimitedTimeOffer, Seria
         this.reports = reports;
     }
 
+    /**
+     * Gets the version of the offer, incremented by every update.
+     *
+     * @return the version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Gets the end date of the offer.
      *
@@ -422,6 +447,15 @@ public class Offer implements BasicOffer, DiscountOffer, LimitedTimeOffer, Seria
         this.endDate = endDate;
     }
 
+    /**
+     * Finds the publishing time of the offer, whether or not it has a basic offer type.
+     *
+     * @return the publishing time, or an empty Optional if it isn't set.
+     */
+    public Optional<LocalDateTime> findPublishingTime() {
+        return publishingTime;
+    }
+
     /**
      * Sets the publishing time of the offer.
      *
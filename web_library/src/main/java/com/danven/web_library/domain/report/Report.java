@@ -1,8 +1,12 @@
 package com.danven.web_library.domain.report;
 
+import com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator;
 import com.danven.web_library.domain.offer.Offer;
 import com.danven.web_library.domain.user.Customer;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.ConstraintViolationException;
@@ -19,7 +23,9 @@ import java.util.Objects;
 public class Report implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "report_seq")
+    @GenericGenerator(name = "report_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "report_seq"))
     @Column(name = "report_id")
     private Long id;
 
@@ -4,6 +4,9 @@ import com.danven.web_library.domain.offer.FavouriteOffer;
 import com.danven.web_library.domain.report.Report;
 import com.danven.web_library.domain.offer.Offer;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
 import javax.validation.ConstraintViolationException;
 import javax.validation.constraints.NotNull;
@@ -33,12 +36,15 @@ public class Customer extends User {
     private Address address;
 
     @OneToMany(mappedBy = "customer", cascade = {CascadeType.PERSIST}, fetch = FetchType.LAZY)
+    @BatchSize(size = 16)
     private Set<Report> reports = new HashSet<>();
 
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 16)
     private Set<Offer> ownedOffers = new HashSet<>();
 
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 16)
     private Set<FavouriteOffer> favouriteOffers = new HashSet<>();
 
     /**
@@ -88,13 +94,17 @@ public class Customer extends User {
 
     /**
      * Adds an offer to the customer's owned offers.
+     * The association is owned by the offer, so the owned offers are only updated if they have
+     * already been loaded, instead of loading every offer of the customer to add a single one.
      *
      * @param offer the offer to add.
      * @throws ConstraintViolationException if the offer is invalid.
      */
     public void addOwnOffer(Offer offer) {
         validateOffer(offer);
-        ownedOffers.add(offer);
+        if (Hibernate.isInitialized(ownedOffers)) {
+            ownedOffers.add(offer);
+        }
     }
 
     /**
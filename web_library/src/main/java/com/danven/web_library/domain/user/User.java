@@ -1,11 +1,20 @@
 package com.danven.web_library.domain.user;
 
+import com.danven.web_library.domain.config.custom_generators.PooledSequenceGenerator;
 import com.danven.web_library.domain.config.custom_types.OptionalStringType;
 import com.danven.web_library.domain.config.custom_validators.OptionalStringNotEmpty;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.TypeDef;
 import org.hibernate.annotations.TypeDefs;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -16,17 +25,24 @@ import java.util.Optional;
 
 /**
  * Represents a user in the web library system.
+ * Users are identified by their email, which is cached as a natural ID so that
+ * resolving the authenticated user does not query the database on every request.
  */
 @Entity
 @Table(name = "USERS")
 @Inheritance(strategy = InheritanceType.JOINED)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-email")
+@BatchSize(size = 16)
 @TypeDefs({
         @TypeDef(name = "optionalString", typeClass = OptionalStringType.class)
 })
 public abstract class User implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @GenericGenerator(name = "users_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "users_seq"))
     @Column(name = "user_id")
     private Long id;
 
@@ -48,6 +64,7 @@ public abstract class User implements Serializable {
 
     @NotBlank(message = "Email cannot be empty")
     @Email(message = "Invalid email format")
+    @NaturalId(mutable = true)
     @Column(name = "email", nullable = false, unique = true)
     private String email;
 
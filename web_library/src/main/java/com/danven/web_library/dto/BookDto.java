@@ -0,0 +1,50 @@
+package com.danven.web_library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+
+/**
+ * Full view of a published book and its offer as returned by the catalog API.
+ * Values that don't apply to the kind of book, such as the number of pages of a disk book, are null.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookDto {
+
+    private final Long id;
+
+    private final long version;
+
+    private final String type;
+
+    private final String name;
+
+    private final int yearOfPublishing;
+
+    private final String description;
+
+    private final String author;
+
+    private final String isbn;
+
+    private final List<String> categories;
+
+    private final Integer numberOfPages;
+
+    private final Boolean diskIsGlued;
+
+    private final Double durationInHours;
+
+    private final String diskFormat;
+
+    private final List<String> imageUrls;
+
+    private final OfferDto offer;
+}
@@ -0,0 +1,37 @@
+package com.danven.web_library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+
+/**
+ * Compact view of a published book as listed by the catalog API.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookSummaryDto {
+
+    private final Long id;
+
+    private final long version;
+
+    private final String name;
+
+    private final String author;
+
+    private final double price;
+
+    private final double effectivePrice;
+
+    private final List<String> offerTypes;
+
+    private final List<String> categories;
+
+    private final String previewImageUrl;
+}
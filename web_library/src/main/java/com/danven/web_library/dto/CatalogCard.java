@@ -0,0 +1,88 @@
+package com.danven.web_library.dto;
+
+import com.danven.web_library.domain.offer.OfferType;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * Read-only view of a book as shown on a catalog card.
+ * Loaded with a JPQL constructor expression, so listing pages never materialize managed entities.
+ */
+@Getter
+@ToString
+public class CatalogCard {
+
+    private final Long bookId;
+
+    /**
+     * Version of the book and its offer, see {@link com.danven.web_library.domain.book.Book#getAggregateVersion()}.
+     */
+    private final long version;
+
+    private final String name;
+
+    private final String author;
+
+    private final double price;
+
+    private final double effectivePrice;
+
+    private final Long previewImageId;
+
+    private final boolean basicOffer;
+
+    private final boolean discountOffer;
+
+    private final boolean limitedTimeOffer;
+
+    private final List<String> categoryNames = new ArrayList<>();
+
+    /**
+     * Constructs a new CatalogCard from the columns selected by the catalog card query.
+     *
+     * @param bookId         the ID of the book.
+     * @param bookVersion    the version of the book.
+     * @param offerVersion   the version of the offer.
+     * @param name           the name of the book.
+     * @param author         the author of the book.
+     * @param price          the price of the offer.
+     * @param discount       the discount of the offer in percent, if any.
+     * @param offerTypes     the types of the offer.
+     * @param previewImageId the ID of the preview image, or null if the book has none.
+     */
+    public CatalogCard(Long bookId, long bookVersion, long offerVersion, String name, String author, double price,
+                       Optional<Double> discount, EnumSet<OfferType> offerTypes, Long previewImageId) {
+        this.bookId = bookId;
+        this.version = bookVersion + offerVersion;
+        this.name = name;
+        this.author = author;
+        this.price = price;
+        this.previewImageId = previewImageId;
+        this.basicOffer = offerTypes.contains(OfferType.BASIC_OFFER);
+        this.discountOffer = offerTypes.contains(OfferType.DISCOUNT_OFFER);
+        this.limitedTimeOffer = offerTypes.contains(OfferType.LIMITED_TIME_OFFER);
+        this.effectivePrice = discountOffer && discount.isPresent()
+                ? price - ((price / 100.0) * discount.get())
+                : price;
+    }
+
+    public List<String> getCategoryNames() {
+        return Collections.unmodifiableList(categoryNames);
+    }
+
+    /**
+     * Adds the name of a category the book belongs to.
+     *
+     * @param categoryName the category name.
+     */
+    public void addCategoryName(String categoryName) {
+        categoryNames.add(categoryName);
+    }
+}
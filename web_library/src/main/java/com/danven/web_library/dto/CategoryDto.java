@@ -0,0 +1,19 @@
+package com.danven.web_library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+
+/**
+ * View of a category as returned by the catalog API.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class CategoryDto {
+
+    private final Long id;
+
+    private final String name;
+}
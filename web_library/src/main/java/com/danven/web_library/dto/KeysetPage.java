@@ -0,0 +1,28 @@
+package com.danven.web_library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+
+/**
+ * One page of a keyset-paginated listing.
+ * The next page is requested with the cursor of this page instead of an offset.
+ *
+ * @param <T> the type of the listed items.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class KeysetPage<T> {
+
+    private final List<T> items;
+
+    private final Long nextCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.danven.web_library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+/**
+ * View of the offer of a book as returned by the catalog API, including the contact info of the seller.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OfferDto {
+
+    private final Long id;
+
+    private final double price;
+
+    private final double effectivePrice;
+
+    private final Double discount;
+
+    private final int numberOfCopies;
+
+    private final List<String> offerTypes;
+
+    private final LocalDateTime endDate;
+
+    private final String email;
+
+    private final String telephoneNumber;
+
+    private final String socialMediaLink;
+}
@@ -0,0 +1,19 @@
+package com.danven.web_library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+
+/**
+ * Catalog card rendered to HTML, ready to be inserted into a listing unescaped.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class RenderedCard {
+
+    private final Long bookId;
+
+    private final String html;
+}
@@ -0,0 +1,42 @@
+package com.danven.web_library.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+
+/**
+ * What authenticating a user needs to know about them.
+ * Loaded with a JPQL constructor expression, so a login never materializes the user entity with its
+ * address, offers, and favourites.
+ */
+@Getter
+@ToString(exclude = "password")
+public class UserCredentials {
+
+    private final Long id;
+
+    private final String email;
+
+    private final String password;
+
+    private final String name;
+
+    private final boolean administrator;
+
+    /**
+     * Constructs new UserCredentials from the columns selected by the credentials query.
+     *
+     * @param id              the ID of the user.
+     * @param email           the email of the user, which is the username.
+     * @param password        the password hash of the user.
+     * @param name            the name of the user.
+     * @param administratorId the ID of the user if they are an administrator, otherwise null.
+     */
+    public UserCredentials(Long id, String email, String password, String name, Long administratorId) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.name = name;
+        this.administrator = administratorId != null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.danven.web_library.event;
+
+/**
+ * Event published when a book and its offer were updated.
+ * Listeners that depend on committed data should consume it with a transactional event listener.
+ */
+public class BookUpdatedEvent {
+
+    private final Long bookId;
+
+    private final boolean imagesChanged;
+
+    /**
+     * Constructs a new BookUpdatedEvent.
+     *
+     * @param bookId        the ID of the updated book.
+     * @param imagesChanged whether the images of the book were replaced.
+     */
+    public BookUpdatedEvent(Long bookId, boolean imagesChanged) {
+        this.bookId = bookId;
+        this.imagesChanged = imagesChanged;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public boolean isImagesChanged() {
+        return imagesChanged;
+    }
+
+    @Override
+    public String toString() {
+        return "BookUpdatedEvent{" +
+                "bookId=" + bookId +
+                ", imagesChanged=" + imagesChanged +
+                '}';
+    }
+}
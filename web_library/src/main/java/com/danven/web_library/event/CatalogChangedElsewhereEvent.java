@@ -0,0 +1,48 @@
+package com.danven.web_library.event;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Event published when another instance has changed the catalog.
+ * If it is known which books changed, listeners refresh only those books; otherwise they rebuild or drop
+ * their state as after an import.
+ */
+public class CatalogChangedElsewhereEvent {
+
+    private final long revision;
+
+    private final Set<Long> bookIds;
+
+    /**
+     * Constructs a new CatalogChangedElsewhereEvent.
+     *
+     * @param revision the catalog revision that was found.
+     * @param bookIds  the IDs of the changed books, or null if the whole catalog may have changed.
+     */
+    public CatalogChangedElsewhereEvent(long revision, Set<Long> bookIds) {
+        this.revision = revision;
+        this.bookIds = bookIds == null ? null : Set.copyOf(bookIds);
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Returns the IDs of the changed books.
+     *
+     * @return the book IDs, or empty if the whole catalog may have changed.
+     */
+    public Optional<Set<Long>> getBookIds() {
+        return Optional.ofNullable(bookIds);
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogChangedElsewhereEvent{" +
+                "revision=" + revision +
+                ", bookIds=" + bookIds +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+package com.danven.web_library.event;
+
+/**
+ * Event published after a catalog import has finished and all of its rows have been committed.
+ * An import can add thousands of books, so listeners rebuild their state once instead of
+ * receiving a {@link BookUpdatedEvent} for every book.
+ */
+public class CatalogImportedEvent {
+
+    private final long importedRows;
+
+    /**
+     * Constructs a new CatalogImportedEvent.
+     *
+     * @param importedRows the number of imported offers.
+     */
+    public CatalogImportedEvent(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogImportedEvent{" +
+                "importedRows=" + importedRows +
+                '}';
+    }
+}
@@ -0,0 +1,9 @@
+package com.danven.web_library.exceptions;
+
+public class ExportBusyException extends RuntimeException {
+
+    public ExportBusyException(String message) {
+        super(message);
+    }
+
+}
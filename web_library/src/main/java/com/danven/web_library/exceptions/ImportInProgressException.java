@@ -0,0 +1,9 @@
+package com.danven.web_library.exceptions;
+
+public class ImportInProgressException extends RuntimeException {
+
+    public ImportInProgressException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.danven.web_library.exporting;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes records as comma separated values as described by RFC 4180, which the catalog import reads back.
+ * The first record holds the field names. Values containing separators, quotes, line breaks,
+ * or surrounding whitespace are quoted; lists are written as text separated by {@code |}.
+ */
+public class CsvRecordWriter implements ExportRecordWriter {
+
+    private static final String SEPARATOR = ",";
+    private static final String LINE_BREAK = "\r\n";
+    private static final String QUOTE = "\"";
+    private static final String LIST_SEPARATOR = "|";
+
+    private final Writer writer;
+
+    private final List<String> fields;
+
+    /**
+     * Constructs a new CsvRecordWriter and writes the header.
+     *
+     * @param writer the characters of the file.
+     * @param fields the names of the fields, in column order.
+     * @throws IOException if the header can't be written.
+     */
+    public CsvRecordWriter(Writer writer, List<String> fields) throws IOException {
+        this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        this.fields = List.copyOf(fields);
+        writeLine(this.fields.stream().map(CsvRecordWriter::quote).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void write(Map<String, Object> record) throws IOException {
+        writeLine(fields.stream().map(field -> quote(toText(record.get(field)))).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeLine(List<String> values) throws IOException {
+        writer.write(String.join(SEPARATOR, values));
+        writer.write(LINE_BREAK);
+    }
+
+    private static String toText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof List) {
+            return ((List<?>) value).stream().map(String::valueOf).collect(Collectors.joining(LIST_SEPARATOR));
+        }
+        return String.valueOf(value);
+    }
+
+    private static String quote(String value) {
+        boolean needsQuotes = value.contains(SEPARATOR) || value.contains(QUOTE) || value.contains("\n")
+                || value.contains("\r") || !value.equals(value.trim());
+        return needsQuotes ? QUOTE + value.replace(QUOTE, QUOTE + QUOTE) + QUOTE : value;
+    }
+}
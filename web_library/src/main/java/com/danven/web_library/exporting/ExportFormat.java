@@ -0,0 +1,69 @@
+package com.danven.web_library.exporting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Enumeration representing the file formats of the catalog export.
+ */
+public enum ExportFormat {
+    CSV("text/csv", "csv"), NDJSON("application/x-ndjson", "ndjson");
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the media type under which files of the format are sent.
+     *
+     * @return the media type of the format.
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Gets the file name extension of the format, which is also its name in requests.
+     *
+     * @return the extension without a dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Opens a writer for records in this format.
+     *
+     * @param writer       the characters of the file.
+     * @param fields       the names of the fields of every record, in column order.
+     * @param objectMapper the mapper writing JSON records.
+     * @return ExportRecordWriter instance.
+     * @throws IOException if the writer can't be opened.
+     */
+    public ExportRecordWriter open(Writer writer, List<String> fields, ObjectMapper objectMapper) throws IOException {
+        return this == CSV ? new CsvRecordWriter(writer, fields) : new NdjsonRecordWriter(writer, objectMapper);
+    }
+
+    /**
+     * Finds the format with the given extension, ignoring case.
+     *
+     * @param extension the extension of the format.
+     * @return the format, or an empty Optional if there is none with the extension.
+     */
+    public static Optional<ExportFormat> fromExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(extension))
+                .findFirst();
+    }
+}
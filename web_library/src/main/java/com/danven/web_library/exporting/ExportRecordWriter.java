@@ -0,0 +1,21 @@
+package com.danven.web_library.exporting;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes the records of an export file one at a time, so that only the current record is held in memory.
+ */
+public interface ExportRecordWriter extends Closeable, Flushable {
+
+    /**
+     * Writes a record.
+     * Values are text, numbers, booleans, lists of text, or null for a missing value.
+     *
+     * @param record the values of the record by field name.
+     * @throws IOException if the file can't be written.
+     */
+    void write(Map<String, Object> record) throws IOException;
+}
@@ -0,0 +1,74 @@
+package com.danven.web_library.exporting;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes records as newline delimited JSON, one JSON object per line, which the catalog import reads back.
+ * Missing values are left out of the object.
+ */
+public class NdjsonRecordWriter implements ExportRecordWriter {
+
+    private final JsonGenerator generator;
+
+    /**
+     * Constructs a new NdjsonRecordWriter.
+     *
+     * @param writer       the characters of the file.
+     * @param objectMapper the mapper writing the values.
+     * @throws IOException if the generator can't be created.
+     */
+    public NdjsonRecordWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(writer);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(Map<String, Object> record) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, Object> field : record.entrySet()) {
+            if (field.getValue() != null) {
+                generator.writeFieldName(field.getKey());
+                writeValue(field.getValue());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Writes a value by its type, without looking up a serializer for every value.
+     */
+    private void writeValue(Object value) throws IOException {
+        if (value instanceof List) {
+            generator.writeStartArray();
+            for (Object item : (List<?>) value) {
+                writeValue(item);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
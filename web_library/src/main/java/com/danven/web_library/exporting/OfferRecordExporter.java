@@ -0,0 +1,91 @@
+package com.danven.web_library.exporting;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.book.DiskBook;
+import com.danven.web_library.domain.book.IDiskBook;
+import com.danven.web_library.domain.book.PaperBook;
+import com.danven.web_library.domain.book.PaperBookWithDisk;
+import com.danven.web_library.domain.offer.ContactInfo;
+import com.danven.web_library.domain.offer.Offer;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Creates an export record from a published book and its offer.
+ * <p>
+ * Records carry the fields read by the catalog import, so an export can be imported again,
+ * with two differences: {@code id} is the ID of the book, and {@code imageUrls} replaces {@code images}
+ * with the URLs the images are served from, the first one being the preview.
+ */
+public final class OfferRecordExporter {
+
+    /**
+     * The names of the fields of every record, in column order.
+     */
+    public static final List<String> FIELDS = List.of(
+            "id", "type", "name", "yearOfPublishing", "description", "author", "isbn", "categories",
+            "numberOfPages", "diskIsGlued", "durationInHours", "diskFormat",
+            "price", "numberOfCopies", "offerTypes", "publishState", "endDate", "publishingTime", "discount",
+            "email", "telephoneNumber", "socialMediaLink", "imageUrls"
+    );
+
+    private OfferRecordExporter() {
+    }
+
+    /**
+     * Creates the record of a book.
+     * Only the book, its offer, and the contact info of the offer are read, so they should have been fetched
+     * together with the book; categories and images are passed in, so that they can be loaded for many books at once.
+     *
+     * @param book           the book with its offer and contact info.
+     * @param categoryNames  the names of the categories of the book.
+     * @param imageIds       the IDs of the images of the book in display order.
+     * @return the values of the record by field name.
+     */
+    public static Map<String, Object> toRecord(Book book, List<String> categoryNames, List<Long> imageIds) {
+        Offer offer = book.getOffer();
+        ContactInfo contactInfo = offer.getContactInfo();
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", book.getId());
+        record.put("type", type(book));
+        record.put("name", book.getName());
+        record.put("yearOfPublishing", book.getYearOfPublishing());
+        record.put("description", book.getDescription());
+        record.put("author", book.getAuthor());
+        record.put("isbn", book.getIsbn());
+        record.put("categories", categoryNames);
+        if (book instanceof PaperBook) {
+            record.put("numberOfPages", ((PaperBook) book).getNumberOfPages());
+        }
+        if (book instanceof PaperBookWithDisk) {
+            record.put("diskIsGlued", ((PaperBookWithDisk) book).isDiskIsGlued());
+        }
+        if (book instanceof IDiskBook) {
+            record.put("durationInHours", ((IDiskBook) book).getDurationInHours());
+            record.put("diskFormat", ((IDiskBook) book).getDiskFormat().name());
+        }
+        record.put("price", offer.getPrice());
+        record.put("numberOfCopies", offer.getNumberOfCopies());
+        record.put("offerTypes", offer.getOfferTypes().stream().map(Enum::name).collect(Collectors.toList()));
+        record.put("publishState", offer.getPublishState().name());
+        record.put("endDate", offer.getEndDate().map(LocalDateTime::toString).orElse(null));
+        record.put("publishingTime", offer.findPublishingTime().map(LocalDateTime::toString).orElse(null));
+        record.put("discount", offer.getDiscount().orElse(null));
+        record.put("email", contactInfo.getEmail());
+        record.put("telephoneNumber", contactInfo.getTelephoneNumber().orElse(null));
+        record.put("socialMediaLink", contactInfo.getSocialMediaLink().orElse(null));
+        record.put("imageUrls", imageIds.stream().map(id -> "/images/" + id).collect(Collectors.toList()));
+        return record;
+    }
+
+    private static String type(Book book) {
+        if (book instanceof PaperBookWithDisk) {
+            return "PAPER_BOOK_WITH_DISK";
+        }
+        return book instanceof DiskBook ? "DISK_BOOK" : "PAPER_BOOK";
+    }
+}
@@ -0,0 +1,132 @@
+package com.danven.web_library.importing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of a catalog import: how many rows were read and imported, and why the other rows were rejected.
+ * At most a fixed number of errors is kept, so that the report of a large file with many bad rows
+ * stays small; the remaining errors are only counted.
+ * Stages of the import pipeline record into the same report, so all methods are synchronized.
+ */
+public class CatalogImportReport {
+
+    private final int maxReportedErrors;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long rowsRejected;
+
+    /**
+     * Constructs a new CatalogImportReport.
+     *
+     * @param maxReportedErrors the maximum number of errors kept in the report.
+     */
+    public CatalogImportReport(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Counts a row read from the file.
+     */
+    public synchronized void rowRead() {
+        rowsRead++;
+    }
+
+    /**
+     * Counts rows saved to the database.
+     *
+     * @param rows the number of saved rows.
+     */
+    public synchronized void rowsImported(int rows) {
+        rowsImported += rows;
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param line    the line of the file the row starts on.
+     * @param message why the row was rejected.
+     */
+    public synchronized void rowRejected(long line, String message) {
+        rowsRejected++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public synchronized long getRowsRead() {
+        return rowsRead;
+    }
+
+    public synchronized long getRowsImported() {
+        return rowsImported;
+    }
+
+    public synchronized long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * Gets the kept errors ordered by line.
+     *
+     * @return the kept errors.
+     */
+    public synchronized List<RowError> getErrors() {
+        List<RowError> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingLong(RowError::getLine));
+        return sorted;
+    }
+
+    /**
+     * Formats the report as text: a summary line followed by one line per kept error, ordered by line.
+     *
+     * @return the formatted report.
+     */
+    public synchronized String format() {
+        StringBuilder text = new StringBuilder()
+                .append("Imported ").append(rowsImported).append(" of ").append(rowsRead).append(" rows, ")
+                .append(rowsRejected).append(" rejected\n");
+        getErrors().forEach(error -> text.append("line ").append(error.getLine()).append(": ").append(error.getMessage()).append('\n'));
+        if (rowsRejected > errors.size()) {
+            text.append(rowsRejected - errors.size()).append(" more rejected rows not listed\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * A rejected row and the reason it was rejected.
+     */
+    public static final class RowError {
+
+        private final long line;
+
+        private final String message;
+
+        private RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "RowError{" +
+                    "line=" + line +
+                    ", message='" + message + '\'' +
+                    '}';
+        }
+    }
+}
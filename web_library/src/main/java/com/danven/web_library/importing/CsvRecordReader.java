@@ -0,0 +1,182 @@
+package com.danven.web_library.importing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads records from comma separated values as described by RFC 4180.
+ * The first record holds the field names. Fields may be quoted, in which case they can contain
+ * commas, line breaks, and quotes written as two quotes. Empty lines are skipped.
+ */
+public class CsvRecordReader implements ImportRecordReader {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final BufferedReader reader;
+
+    private List<String> header;
+
+    private long line = 1;
+
+    private int pending = -2;
+
+    /**
+     * Constructs a new CsvRecordReader.
+     *
+     * @param reader the characters of the file.
+     */
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        if (header == null) {
+            if (peek() == BYTE_ORDER_MARK) {
+                read();
+            }
+            List<String> names = readValues();
+            if (names == null) {
+                return null;
+            }
+            header = names.stream().map(String::trim).collect(Collectors.toList());
+        }
+        long start = line;
+        List<String> values;
+        try {
+            values = readValues();
+        } catch (MalformedCsvException e) {
+            skipLine();
+            return ImportRecord.malformed(start, e.getMessage());
+        }
+        if (values == null) {
+            return null;
+        }
+        if (values.size() != header.size()) {
+            return ImportRecord.malformed(start, "Expected " + header.size() + " fields but found " + values.size());
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return ImportRecord.of(start, fields);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the values of the next non-empty line.
+     *
+     * @return the values, or null at the end of the file.
+     */
+    private List<String> readValues() throws IOException {
+        while (peek() == '\r' || peek() == '\n') {
+            readLineBreak();
+        }
+        if (peek() == -1) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == QUOTE && value.length() == 0) {
+                readQuoted(value);
+                int next = peek();
+                if (next != SEPARATOR && next != '\r' && next != '\n' && next != -1) {
+                    throw new MalformedCsvException("Unexpected character after closing quote on line " + line);
+                }
+            } else if (c == SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                values.add(value.toString());
+                if (c != -1) {
+                    finishLineBreak(c);
+                }
+                return values;
+            } else {
+                value.append((char) c);
+            }
+        }
+    }
+
+    private void readQuoted(StringBuilder value) throws IOException {
+        long start = line;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new MalformedCsvException("Quoted field starting on line " + start + " is never closed");
+            }
+            if (c == QUOTE) {
+                if (peek() != QUOTE) {
+                    return;
+                }
+                read();
+            } else if (c == '\r' || c == '\n') {
+                finishLineBreak(c);
+                value.append('\n');
+                continue;
+            }
+            value.append((char) c);
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != '\r' && c != '\n' && c != -1);
+        if (c != -1) {
+            finishLineBreak(c);
+        }
+    }
+
+    private void readLineBreak() throws IOException {
+        finishLineBreak(read());
+    }
+
+    /**
+     * Consumes the rest of a line break whose first character has been read, treating CRLF as one break.
+     */
+    private void finishLineBreak(int first) throws IOException {
+        if (first == '\r' && peek() == '\n') {
+            read();
+        }
+        line++;
+    }
+
+    private int peek() throws IOException {
+        if (pending == -2) {
+            pending = reader.read();
+        }
+        return pending;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        pending = -2;
+        return c;
+    }
+
+    /**
+     * Thrown for a record that doesn't follow the CSV syntax.
+     */
+    private static final class MalformedCsvException extends IOException {
+
+        private MalformedCsvException(String message) {
+            super(message);
+        }
+    }
+}
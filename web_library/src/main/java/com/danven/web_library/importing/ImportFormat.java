@@ -0,0 +1,53 @@
+package com.danven.web_library.importing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Enumeration representing the file formats accepted by the catalog import.
+ */
+public enum ImportFormat {
+    CSV("text/csv"), NDJSON("application/x-ndjson");
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    /**
+     * Gets the media type under which files of the format are submitted.
+     *
+     * @return the media type of the format.
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Opens a reader for the records of a file in this format.
+     *
+     * @param reader       the characters of the file.
+     * @param objectMapper the mapper parsing JSON records.
+     * @return ImportRecordReader instance.
+     */
+    public ImportRecordReader open(Reader reader, ObjectMapper objectMapper) {
+        return this == CSV ? new CsvRecordReader(reader) : new NdjsonRecordReader(reader, objectMapper);
+    }
+
+    /**
+     * Finds the format submitted under a media type, ignoring its parameters such as the charset.
+     *
+     * @param mediaType the media type of the submitted file.
+     * @return the format, or an empty Optional if the media type isn't accepted.
+     */
+    public static Optional<ImportFormat> fromMediaType(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.equalsTypeAndSubtype(mediaType))
+                .findFirst();
+    }
+}
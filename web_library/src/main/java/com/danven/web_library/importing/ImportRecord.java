@@ -0,0 +1,117 @@
+package com.danven.web_library.importing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One record read from an import file, before it has been validated.
+ * Field values are kept as read: strings for CSV, and strings, numbers, booleans, or lists for NDJSON.
+ * A record that couldn't be read at all carries the reason instead of fields.
+ */
+public final class ImportRecord {
+
+    /**
+     * Separator of list values in a single text field, e.g. {@code Fantasy|Science}.
+     */
+    private static final String LIST_SEPARATOR = "\\|";
+
+    private final long line;
+
+    private final Map<String, Object> fields;
+
+    private final String error;
+
+    private ImportRecord(long line, Map<String, Object> fields, String error) {
+        this.line = line;
+        this.fields = fields;
+        this.error = error;
+    }
+
+    /**
+     * Creates a record from its fields.
+     *
+     * @param line   the line of the file the record starts on.
+     * @param fields the values of the record by field name.
+     * @return ImportRecord instance.
+     */
+    public static ImportRecord of(long line, Map<String, Object> fields) {
+        return new ImportRecord(line, Collections.unmodifiableMap(fields), null);
+    }
+
+    /**
+     * Creates a record that couldn't be read.
+     *
+     * @param line  the line of the file the record starts on.
+     * @param error why the record couldn't be read.
+     * @return ImportRecord instance.
+     */
+    public static ImportRecord malformed(long line, String error) {
+        return new ImportRecord(line, Map.of(), error);
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Gets why the record couldn't be read.
+     *
+     * @return the reason, or an empty Optional if the record was read.
+     */
+    public Optional<String> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    /**
+     * Gets a single value of the record as text.
+     *
+     * @param field the name of the field.
+     * @return the trimmed value, or an empty Optional if the field is missing, null, or blank.
+     */
+    public Optional<String> get(String field) {
+        Object value = fields.get(field);
+        if (value == null || value instanceof List || value instanceof Map) {
+            return Optional.empty();
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? Optional.empty() : Optional.of(text);
+    }
+
+    /**
+     * Gets a list value of the record as text.
+     * Lists are read from JSON arrays or from text separated by {@code |}.
+     *
+     * @param field the name of the field.
+     * @return the trimmed, non-blank values in their original order.
+     */
+    public List<String> getList(String field) {
+        Object value = fields.get(field);
+        List<String> values = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                if (item != null && !item.toString().isBlank()) {
+                    values.add(item.toString().trim());
+                }
+            }
+        } else if (value != null) {
+            for (String item : value.toString().split(LIST_SEPARATOR)) {
+                if (!item.isBlank()) {
+                    values.add(item.trim());
+                }
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportRecord{" +
+                "line=" + line +
+                ", fields=" + fields +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.danven.web_library.importing;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the records of an import file one at a time, so that only the current record is held in memory.
+ */
+public interface ImportRecordReader extends Closeable {
+
+    /**
+     * Reads the next record.
+     * A record that can't be parsed is returned as a malformed record and reading continues after it.
+     *
+     * @return the next record, or null at the end of the file.
+     * @throws IOException if the file can't be read.
+     */
+    ImportRecord next() throws IOException;
+}
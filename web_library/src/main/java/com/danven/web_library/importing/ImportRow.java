@@ -0,0 +1,38 @@
+package com.danven.web_library.importing;
+
+import java.util.List;
+
+/**
+ * An import record that passed validation, together with its images in the image store.
+ * The entities are created from the record again when the row is saved, so that a row can be
+ * retried on its own after the batch it belonged to was rolled back.
+ */
+public final class ImportRow {
+
+    private final ImportRecord record;
+
+    private final List<ImportedImage> images;
+
+    /**
+     * Constructs a new ImportRow.
+     *
+     * @param record the validated record.
+     * @param images the images of the book in display order.
+     */
+    public ImportRow(ImportRecord record, List<ImportedImage> images) {
+        this.record = record;
+        this.images = List.copyOf(images);
+    }
+
+    public ImportRecord getRecord() {
+        return record;
+    }
+
+    public List<ImportedImage> getImages() {
+        return images;
+    }
+
+    public long getLine() {
+        return record.getLine();
+    }
+}
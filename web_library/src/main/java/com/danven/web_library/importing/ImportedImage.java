@@ -0,0 +1,41 @@
+package com.danven.web_library.importing;
+
+import com.danven.web_library.domain.book.ImageFormat;
+import com.danven.web_library.storage.StoredBlob;
+
+/**
+ * An image referenced by an import record, already copied into the image store.
+ */
+public final class ImportedImage {
+
+    private final StoredBlob blob;
+
+    private final ImageFormat format;
+
+    /**
+     * Constructs a new ImportedImage.
+     *
+     * @param blob   the stored content of the image.
+     * @param format the format of the image.
+     */
+    public ImportedImage(StoredBlob blob, ImageFormat format) {
+        this.blob = blob;
+        this.format = format;
+    }
+
+    public StoredBlob getBlob() {
+        return blob;
+    }
+
+    public ImageFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportedImage{" +
+                "blob=" + blob +
+                ", format=" + format +
+                '}';
+    }
+}
@@ -0,0 +1,81 @@
+package com.danven.web_library.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads records from newline delimited JSON, one JSON object per line.
+ * Every line is parsed on its own, so a malformed line only affects its own record. Blank lines are skipped.
+ */
+public class NdjsonRecordReader implements ImportRecordReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    private long line;
+
+    /**
+     * Constructs a new NdjsonRecordReader.
+     *
+     * @param reader       the characters of the file.
+     * @param objectMapper the mapper parsing the lines.
+     */
+    public NdjsonRecordReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        if (text == null) {
+            return null;
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            return ImportRecord.malformed(line, "Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return ImportRecord.malformed(line, "Expected a JSON object");
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        node.fields().forEachRemaining(field -> fields.put(field.getKey(), toValue(field.getValue())));
+        return ImportRecord.of(line, fields);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Converts a JSON value into text, a list, a map, or null. Numbers and booleans become their JSON text.
+     */
+    private Object toValue(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (value.isArray()) {
+            return objectMapper.convertValue(value, List.class);
+        }
+        if (value.isValueNode()) {
+            return value.asText();
+        }
+        return objectMapper.convertValue(value, Map.class);
+    }
+}
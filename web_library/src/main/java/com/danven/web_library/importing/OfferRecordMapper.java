@@ -0,0 +1,223 @@
+package com.danven.web_library.importing;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.book.Category;
+import com.danven.web_library.domain.book.DiskBook;
+import com.danven.web_library.domain.book.DiskFormat;
+import com.danven.web_library.domain.book.Image;
+import com.danven.web_library.domain.book.PaperBook;
+import com.danven.web_library.domain.book.PaperBookWithDisk;
+import com.danven.web_library.domain.offer.ContactInfo;
+import com.danven.web_library.domain.offer.Offer;
+import com.danven.web_library.domain.offer.OfferType;
+import com.danven.web_library.domain.offer.PublishState;
+import com.danven.web_library.domain.user.Customer;
+import com.danven.web_library.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Creates an offer with its book, images, and contact info from an import record.
+ * <p>
+ * Records have the following fields; list fields are JSON arrays or text separated by {@code |}:
+ * <ul>
+ *     <li>{@code type}: PAPER_BOOK, DISK_BOOK, or PAPER_BOOK_WITH_DISK</li>
+ *     <li>{@code name}, {@code yearOfPublishing}, {@code description}, {@code author}, {@code isbn}</li>
+ *     <li>{@code categories}: names of existing categories</li>
+ *     <li>{@code numberOfPages} for paper books, {@code diskIsGlued} for paper books with disk (defaults to false)</li>
+ *     <li>{@code durationInHours} and {@code diskFormat} for books with a disk</li>
+ *     <li>{@code price}, {@code numberOfCopies}, {@code offerTypes}</li>
+ *     <li>{@code publishState}: PUBLISHED, UNPUBLISHED, or ARCHIVED (defaults to PUBLISHED)</li>
+ *     <li>{@code endDate}, {@code publishingTime}: optional ISO local date-times</li>
+ *     <li>{@code discount}: optional</li>
+ *     <li>{@code email}, optional {@code telephoneNumber} and {@code socialMediaLink} of the contact info</li>
+ *     <li>{@code images}: optional paths of the images, the first one is the preview</li>
+ * </ul>
+ * Enumeration values are matched ignoring case.
+ */
+public final class OfferRecordMapper {
+
+    private OfferRecordMapper() {
+    }
+
+    /**
+     * Gets the names of the categories of the book.
+     *
+     * @param record the import record.
+     * @return the category names in their original order.
+     * @throws ValidationException if the record names no category.
+     */
+    public static List<String> categoryNames(ImportRecord record) {
+        List<String> names = record.getList("categories");
+        if (names.isEmpty()) {
+            throw new ValidationException("categories: at least one category is required");
+        }
+        return names;
+    }
+
+    /**
+     * Gets the paths of the images of the book.
+     *
+     * @param record the import record.
+     * @return the image paths in display order.
+     */
+    public static List<String> imagePaths(ImportRecord record) {
+        return record.getList("images");
+    }
+
+    /**
+     * Creates the offer described by a record.
+     * The offer is linked to its owner, book, and contact info, and the book to its categories and images,
+     * but nothing is persisted.
+     *
+     * @param record     the import record.
+     * @param categories the categories of the book.
+     * @param images     the images of the book in display order.
+     * @param owner      the owner of the offer.
+     * @return the offer.
+     * @throws ValidationException if a field is missing or has an invalid value.
+     */
+    public static Offer toOffer(ImportRecord record, Set<Category> categories, List<ImportedImage> images, Customer owner) {
+        Book book = toBook(record, new HashSet<>(categories));
+        for (int position = 0; position < images.size(); position++) {
+            ImportedImage image = images.get(position);
+            new Image(image.getBlob().getDigest(), image.getBlob().getSizeInBytes(), image.getFormat(),
+                    position == 0, position, book);
+        }
+        Offer offer = new Offer(
+                requiredDouble(record, "price"),
+                requiredInt(record, "numberOfCopies"),
+                book,
+                optionalDateTime(record, "endDate"),
+                optionalDateTime(record, "publishingTime"),
+                record.get("discount").map(value -> toDouble("discount", value)),
+                publishState(record),
+                offerTypes(record),
+                owner
+        );
+        new ContactInfo(
+                required(record, "email"),
+                record.get("telephoneNumber"),
+                record.get("socialMediaLink"),
+                offer
+        );
+        return offer;
+    }
+
+    private static Book toBook(ImportRecord record, Set<Category> categories) {
+        BookType type = toEnum(BookType.class, "type", required(record, "type"));
+        String name = required(record, "name");
+        int yearOfPublishing = requiredInt(record, "yearOfPublishing");
+        String description = required(record, "description");
+        String author = required(record, "author");
+        String isbn = required(record, "isbn");
+        switch (type) {
+            case PAPER_BOOK:
+                return new PaperBook(name, yearOfPublishing, description, author, isbn, categories,
+                        requiredInt(record, "numberOfPages"));
+            case DISK_BOOK:
+                return new DiskBook(name, yearOfPublishing, description, author, isbn, categories,
+                        requiredDouble(record, "durationInHours"), diskFormat(record));
+            default:
+                return new PaperBookWithDisk(name, yearOfPublishing, description, author, isbn, categories,
+                        requiredInt(record, "numberOfPages"), optionalBoolean(record, "diskIsGlued"),
+                        requiredDouble(record, "durationInHours"), diskFormat(record));
+        }
+    }
+
+    private static DiskFormat diskFormat(ImportRecord record) {
+        return toEnum(DiskFormat.class, "diskFormat", required(record, "diskFormat"));
+    }
+
+    private static PublishState publishState(ImportRecord record) {
+        PublishState state = record.get("publishState")
+                .map(value -> toEnum(PublishState.class, "publishState", value))
+                .orElse(PublishState.PUBLISHED);
+        if (state == PublishState.BANNED) {
+            throw new ValidationException("publishState: banned offers can't be imported");
+        }
+        return state;
+    }
+
+    private static EnumSet<OfferType> offerTypes(ImportRecord record) {
+        List<String> values = record.getList("offerTypes");
+        if (values.isEmpty()) {
+            throw new ValidationException("offerTypes: at least one offer type is required");
+        }
+        EnumSet<OfferType> offerTypes = EnumSet.noneOf(OfferType.class);
+        values.forEach(value -> offerTypes.add(toEnum(OfferType.class, "offerTypes", value)));
+        return offerTypes;
+    }
+
+    private static String required(ImportRecord record, String field) {
+        return record.get(field).orElseThrow(() -> new ValidationException(field + ": value is required"));
+    }
+
+    private static int requiredInt(ImportRecord record, String field) {
+        String value = required(record, field);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(field + ": '" + value + "' is not a whole number");
+        }
+    }
+
+    private static double requiredDouble(ImportRecord record, String field) {
+        return toDouble(field, required(record, field));
+    }
+
+    private static double toDouble(String field, String value) {
+        try {
+            double number = Double.parseDouble(value);
+            if (!Double.isFinite(number)) {
+                throw new NumberFormatException();
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new ValidationException(field + ": '" + value + "' is not a number");
+        }
+    }
+
+    private static boolean optionalBoolean(ImportRecord record, String field) {
+        Optional<String> value = record.get(field);
+        if (value.isEmpty()) {
+            return false;
+        }
+        if (!value.get().equalsIgnoreCase("true") && !value.get().equalsIgnoreCase("false")) {
+            throw new ValidationException(field + ": '" + value.get() + "' is neither true nor false");
+        }
+        return Boolean.parseBoolean(value.get());
+    }
+
+    private static Optional<LocalDateTime> optionalDateTime(ImportRecord record, String field) {
+        return record.get(field).map(value -> {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new ValidationException(field + ": '" + value + "' is not a date-time like 2024-05-01T12:00");
+            }
+        });
+    }
+
+    private static <E extends Enum<E>> E toEnum(Class<E> type, String field, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+        throw new ValidationException(field + ": unknown value '" + value + "'");
+    }
+
+    /**
+     * The kinds of books that can be imported.
+     */
+    private enum BookType {
+        PAPER_BOOK, DISK_BOOK, PAPER_BOOK_WITH_DISK
+    }
+}
@@ -0,0 +1,81 @@
+package com.danven.web_library.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Filter enforcing a budget of SQL statements per request.
+ * Requests exceeding the budget are logged; when failing is enabled, the statement exceeding
+ * the budget fails instead, so N+1 query storms surface as errors during development.
+ * The filter runs before the security filters, so that statements issued for authentication are counted too.
+ * Bulk endpoints, such as the catalog import and export, are excluded, since their statement count grows with their input.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute holding the number of statements the request prepared.
+     */
+    public static final String STATEMENT_COUNT_ATTRIBUTE = QueryBudgetFilter.class.getName() + ".statementCount";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final StatementCounter statementCounter;
+    private final int maxStatements;
+    private final boolean failOnExceed;
+    private final List<String> excludedPaths;
+
+    /**
+     * Constructs a new QueryBudgetFilter.
+     *
+     * @param statementCounter the inspector counting the statements.
+     * @param maxStatements    the number of statements a request may prepare.
+     * @param failOnExceed     whether exceeding the budget fails the request rather than being logged.
+     * @param excludedPaths    the paths of requests without a budget.
+     */
+    public QueryBudgetFilter(StatementCounter statementCounter,
+                             @Value("${web-library.query-budget.max-statements:20}") int maxStatements,
+                             @Value("${web-library.query-budget.fail-on-exceed:false}") boolean failOnExceed,
+                             @Value("${web-library.query-budget.excluded-paths:/profile/offers/import,/catalog/export}") List<String> excludedPaths) {
+        this.statementCounter = statementCounter;
+        this.maxStatements = maxStatements;
+        this.failOnExceed = failOnExceed;
+        this.excludedPaths = List.copyOf(excludedPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return excludedPaths.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        statementCounter.start(failOnExceed ? maxStatements : StatementCounter.UNLIMITED);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = statementCounter.stop();
+            request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, count);
+            if (count > maxStatements) {
+                log.warn("{} {} prepared {} SQL statements, the budget is {}",
+                        request.getMethod(), request.getRequestURI(), count, maxStatements);
+            } else {
+                log.debug("{} {} prepared {} SQL statements", request.getMethod(), request.getRequestURI(), count);
+            }
+        }
+    }
+}
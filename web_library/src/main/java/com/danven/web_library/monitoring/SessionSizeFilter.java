@@ -0,0 +1,184 @@
+package com.danven.web_library.monitoring;
+
+import com.danven.web_library.session.SessionAttributeCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filter guarding the size of HTTP sessions.
+ * After a request that has a session, the session attributes are serialized the way the session store
+ * serializes them, with the {@link SessionAttributeCodec} when sessions are kept in the database and with Java
+ * serialization otherwise, and a warning names the attributes if their total size exceeds the budget or
+ * one of them can't be serialized at all. The serialized bytes are only counted, never kept.
+ * <p>
+ * Serializing every session on every request is too costly to leave running, so the guard is off by default,
+ * and when switched on only measures the given share of requests. A failure to measure is logged and never
+ * fails the request.
+ * The filter runs inside the session repository filter, so that it sees the session the store is about to save,
+ * and outside the security filters, so that the security context stored at the end of the request is measured too.
+ */
+@Component
+@Order(SessionRepositoryFilter.DEFAULT_ORDER + 1)
+public class SessionSizeFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute holding the serialized size of the session attributes in bytes,
+     * or -1 if an attribute isn't serializable.
+     */
+    public static final String SESSION_SIZE_ATTRIBUTE = SessionSizeFilter.class.getName() + ".sessionSize";
+
+    private static final Logger log = LoggerFactory.getLogger(SessionSizeFilter.class);
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long maxBytes;
+    private final SessionAttributeCodec codec;
+
+    /**
+     * Constructs a new SessionSizeFilter.
+     *
+     * @param enabled    whether sessions are measured.
+     * @param sampleRate the share of requests whose session is measured, from 0 to 1.
+     * @param maxSize    the serialized size the attributes of a session may have.
+     * @param codec      the codec of the session store, if sessions are kept in the database.
+     */
+    public SessionSizeFilter(@Value("${web-library.session-guard.enabled:false}") boolean enabled,
+                             @Value("${web-library.session-guard.sample-rate:0.01}") double sampleRate,
+                             @Value("${web-library.session-guard.max-size:16KB}") DataSize maxSize,
+                             ObjectProvider<SessionAttributeCodec> codec) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.maxBytes = maxSize.toBytes();
+        this.codec = codec.getIfAvailable();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || ThreadLocalRandom.current().nextDouble() >= sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                measure(request, session);
+            }
+        }
+    }
+
+    /**
+     * Measures the attributes of a session and warns if they exceed the budget.
+     *
+     * @param request the request that used the session.
+     * @param session the session.
+     */
+    private void measure(HttpServletRequest request, HttpSession session) {
+        Map<String, Long> sizes;
+        try {
+            sizes = attributeSizes(session);
+        } catch (IllegalStateException e) {
+            // The session was invalidated during the request, e.g. on logout.
+            return;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to measure the session left by {} {}", request.getMethod(), request.getRequestURI(), e);
+            return;
+        }
+        long total = sizes.containsValue(-1L) ? -1 : sizes.values().stream().mapToLong(Long::longValue).sum();
+        request.setAttribute(SESSION_SIZE_ATTRIBUTE, total);
+        if (total < 0) {
+            log.warn("{} {} left a session with attributes that can't be serialized: {}",
+                    request.getMethod(), request.getRequestURI(), sizes);
+        } else if (total > maxBytes) {
+            log.warn("{} {} left a session of {} bytes, the budget is {} bytes: {}",
+                    request.getMethod(), request.getRequestURI(), total, maxBytes, sizes);
+        } else {
+            log.debug("{} {} left a session of {} bytes", request.getMethod(), request.getRequestURI(), total);
+        }
+    }
+
+    /**
+     * Serializes each attribute of a session and counts its bytes.
+     *
+     * @param session the session.
+     * @return the serialized size of each attribute by name, -1 for attributes that can't be serialized.
+     * @throws IOException if serializing an attribute fails for another reason.
+     */
+    private Map<String, Long> attributeSizes(HttpSession session) throws IOException {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (String name : Collections.list(session.getAttributeNames())) {
+            sizes.put(name, serializedSize(session.getAttribute(name)));
+        }
+        return sizes;
+    }
+
+    /**
+     * Counts the bytes of an object as the session store serializes it.
+     *
+     * @param value the object.
+     * @return the number of bytes, or -1 if the object can't be serialized.
+     * @throws IOException if serializing the object fails for another reason.
+     */
+    private long serializedSize(Object value) throws IOException {
+        if (codec != null) {
+            try {
+                return codec.encode(value).length;
+            } catch (SerializationFailedException e) {
+                if (e.getCause() instanceof NotSerializableException) {
+                    return -1;
+                }
+                throw e;
+            }
+        }
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(value);
+        } catch (NotSerializableException e) {
+            return -1;
+        }
+        return counter.count;
+    }
+
+    /**
+     * Output stream discarding its bytes after counting them.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.danven.web_library.monitoring;
+
+import com.danven.web_library.exceptions.QueryBudgetExceededException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate statement inspector counting the SQL statements prepared on the current thread.
+ * Counting only happens between {@link #start(int)} and {@link #stop()}; statements prepared
+ * outside of that window, such as those of background tasks, are not counted.
+ */
+@Component
+public class StatementCounter implements StatementInspector {
+
+    /**
+     * Limit passed to {@link #start(int)} to count without ever failing.
+     */
+    public static final int UNLIMITED = -1;
+
+    private final ThreadLocal<Tally> tally = new ThreadLocal<>();
+
+    /**
+     * Starts counting the statements of the current thread.
+     *
+     * @param limit the number of statements after which further statements fail, or {@link #UNLIMITED}.
+     */
+    public void start(int limit) {
+        tally.set(new Tally(limit));
+    }
+
+    /**
+     * Stops counting the statements of the current thread.
+     *
+     * @return the number of statements prepared since counting started, or 0 if it wasn't started.
+     */
+    public int stop() {
+        Tally current = tally.get();
+        tally.remove();
+        return current == null ? 0 : current.count;
+    }
+
+    /**
+     * Counts a statement about to be prepared.
+     *
+     * @param sql the SQL of the statement.
+     * @return the unchanged SQL.
+     * @throws QueryBudgetExceededException if counting with a limit and the limit is exceeded.
+     */
+    @Override
+    public String inspect(String sql) {
+        Tally current = tally.get();
+        if (current != null && ++current.count > current.limit && current.limit != UNLIMITED) {
+            throw new QueryBudgetExceededException(
+                    "Exceeded the budget of " + current.limit + " SQL statements with: " + sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Statement count of one thread.
+     */
+    private static final class Tally {
+
+        private final int limit;
+
+        private int count;
+
+        private Tally(int limit) {
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.domain.book.Book;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment loading the Book aggregate: a book with its offer, contact info, images, and categories.
+ */
+public interface BookAggregateRepository {
+
+    /**
+     * Loads the aggregates of the books with the given IDs.
+     *
+     * @param bookIds the IDs of the books.
+     * @return the books in the order of the IDs; IDs of books that don't exist are skipped.
+     */
+    List<Book> findAggregatesByIdIn(Collection<Long> bookIds);
+
+    /**
+     * Loads the aggregate of a book.
+     *
+     * @param bookId the ID of the book.
+     * @return the book, or an empty Optional if it doesn't exist.
+     */
+    Optional<Book> findAggregateById(Long bookId);
+
+    /**
+     * Loads the aggregate of a book, provided it is offered by the given owner.
+     *
+     * @param bookId  the ID of the book.
+     * @param ownerId the ID of the owner.
+     * @return the book, or an empty Optional if it doesn't exist or belongs to another owner.
+     */
+    Optional<Book> findAggregateByIdAndOwnerId(Long bookId, Long ownerId);
+
+    /**
+     * Streams all published books with their offers, contact infos, and owners, lowest book ID first.
+     * Images and categories aren't fetched. Rows are read from a cursor as the stream is consumed, so
+     * the stream must be consumed within a transaction and closed; the caller should clear the
+     * persistence context as it goes.
+     *
+     * @return a stream of the published books.
+     */
+    Stream<Book> streamPublished();
+}
@@ -0,0 +1,138 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.offer.Offer;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link BookAggregateRepository} that never fetch-joins more than one collection per query.
+ * Books are loaded together with their offer, contact info, and owner first; the images and the categories
+ * of those books are then fetched by two further queries over the same IDs. The persistence context stitches
+ * the results together, so the number of rows read is the sum of the parts rather than their product.
+ */
+public class BookAggregateRepositoryImpl implements BookAggregateRepository {
+
+    /**
+     * Largest number of IDs bound to a single IN query.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Number of rows the cursor of {@link #streamPublished()} reads from the database at a time.
+     */
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * Selects from the offer side, so that the inverse one-to-one to the book is filled by the join
+     * instead of a select per offer.
+     */
+    private static final String BOOKS_WITH_OFFERS = "SELECT o FROM Offer o " +
+            "JOIN FETCH o.book LEFT JOIN FETCH o.contactInfo JOIN FETCH o.owner ";
+
+    /**
+     * Matches the books in a subquery, which lets the database plan the IN list against the book key alone
+     * rather than against the whole join.
+     */
+    private static final String BY_BOOK_IDS = "WHERE o.id IN (SELECT b.offer.id FROM Book b WHERE b.id IN :ids)";
+
+    private static final String PUBLISHED_BOOKS_WITH_OFFERS = "SELECT o FROM Offer o " +
+            "JOIN FETCH o.book b LEFT JOIN FETCH o.contactInfo JOIN FETCH o.owner " +
+            "WHERE o.publishState = 'PUBLISHED' ORDER BY b.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> findAggregatesByIdIn(Collection<Long> bookIds) {
+        List<Long> ids = new ArrayList<>(bookIds);
+        Map<Long, Book> books = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            TypedQuery<Offer> query = entityManager.createQuery(BOOKS_WITH_OFFERS + BY_BOOK_IDS, Offer.class)
+                    .setParameter("ids", batch);
+            load(query).forEach(book -> books.put(book.getId(), book));
+        }
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Book> findAggregateById(Long bookId) {
+        return findAggregatesByIdIn(List.of(bookId)).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Book> findAggregateByIdAndOwnerId(Long bookId, Long ownerId) {
+        TypedQuery<Offer> query = entityManager.createQuery(BOOKS_WITH_OFFERS + BY_BOOK_IDS + " AND o.owner.id = :ownerId", Offer.class)
+                .setParameter("ids", List.of(bookId))
+                .setParameter("ownerId", ownerId);
+        return load(query).stream().findFirst();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The rows are loaded read-only and bypass the second-level cache, so that a full pass over the catalog
+     * neither snapshots every entity for dirty checking nor evicts the working set from the cache.
+     */
+    @Override
+    public Stream<Book> streamPublished() {
+        return entityManager.createQuery(PUBLISHED_BOOKS_WITH_OFFERS, Offer.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()
+                .map(Offer::getBook);
+    }
+
+    /**
+     * Runs the query selecting the offers and books, then initializes the images and categories of the books.
+     *
+     * @param offerQuery the query selecting the offers with their books.
+     * @return the loaded books.
+     */
+    private List<Book> load(TypedQuery<Offer> offerQuery) {
+        List<Book> books = offerQuery.getResultList().stream()
+                .map(Offer::getBook)
+                .collect(Collectors.toList());
+        if (books.isEmpty()) {
+            return books;
+        }
+        List<Long> ids = books.stream().map(Book::getId).collect(Collectors.toList());
+        fetchCollection("images", ids);
+        fetchCollection("categories", ids);
+        return books;
+    }
+
+    /**
+     * Initializes a collection of already loaded books with a single query.
+     *
+     * @param collection the name of the collection attribute.
+     * @param ids        the IDs of the books.
+     */
+    private void fetchCollection(String collection, List<Long> ids) {
+        entityManager.createQuery("SELECT DISTINCT b FROM Book b LEFT JOIN FETCH b." + collection + " WHERE b.id IN :ids", Book.class)
+                .setParameter("ids", ids)
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .getResultList();
+    }
+}
@@ -1,37 +1,48 @@
 package com.danven.web_library.repository;
 
 import com.danven.web_library.domain.book.Book;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 
 /**
  * Repository interface for accessing Book entities from the database.
  */
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookAggregateRepository {
 
     /**
-     * Finds all books with their associated offers, images, and categories
-     * where the offer's publish state is 'PUBLISHED'.
+     * Finds the category names of the books within a range of IDs.
+     * A range rather than a list of IDs lets the database walk the key index once for a whole chunk
+     * of books streamed in ID order.
      *
-     * @return a list of published books with their offers, images, and categories.
+     * @param firstId the lowest book ID, inclusive.
+     * @param lastId  the highest book ID, inclusive.
+     * @return the category names with the IDs of their books, ordered by name.
      */
-    @EntityGraph(value = "book-with-offer-images-categories", type = EntityGraph.EntityGraphType.LOAD)
-    @Query("SELECT b FROM Book b WHERE b.offer.publishState = 'PUBLISHED'")
-    List<Book> findAllBooksWithOffersImagesAndCategories();
+    @Query("SELECT b.id AS bookId, c.name AS name FROM Book b JOIN b.categories c " +
+            "WHERE b.id BETWEEN :firstId AND :lastId ORDER BY c.name")
+    List<BookCategoryName> findCategoryNamesByBookIdBetween(@Param("firstId") Long firstId, @Param("lastId") Long lastId);
 
     /**
-     * Finds all books owned by a specific owner with their associated offers, images, and categories.
+     * Finds the IDs of the offers of the given books.
      *
-     * @param ownerId the ID of the owner.
-     * @return a list of books owned by the specified owner.
+     * @param bookIds the book IDs.
+     * @return the offer IDs, in no particular order.
      */
-    @EntityGraph(value = "book-with-offer-images-categories", type = EntityGraph.EntityGraphType.LOAD)
-    @Query("SELECT b FROM Book b WHERE b.offer.owner.id = :ownerId")
-    List<Book> findBooksByOwnerId(@Param("ownerId") Long ownerId);
+    @Query("SELECT b.offer.id FROM Book b WHERE b.id IN :bookIds")
+    List<Long> findOfferIds(@Param("bookIds") Collection<Long> bookIds);
 
+    /**
+     * Projection of the name of a category a book belongs to.
+     */
+    interface BookCategoryName {
+
+        Long getBookId();
+
+        String getName();
+    }
 }
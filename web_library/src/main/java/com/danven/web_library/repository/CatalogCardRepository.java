@@ -0,0 +1,64 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.offer.PublishState;
+import com.danven.web_library.dto.CatalogCard;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only repository projecting books directly into catalog cards.
+ */
+public interface CatalogCardRepository extends Repository<Book, Long> {
+
+    /**
+     * Finds the catalog cards of the books with the given IDs. Category names are not filled in.
+     *
+     * @param ids the IDs of the books.
+     * @return the cards in no particular order.
+     */
+    @Query("SELECT new com.danven.web_library.dto.CatalogCard(" +
+            "b.id, b.version, o.version, b.name, b.author, o.price, o.discount, o.offerTypes, i.id) " +
+            "FROM Book b JOIN b.offer o LEFT JOIN b.previewImages i " +
+            "WHERE b.id IN :ids")
+    List<CatalogCard> findCardsByBookIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the category names of the books with the given IDs.
+     *
+     * @param ids the IDs of the books.
+     * @return pairs of book ID and category name, ordered by category name.
+     */
+    @Query("SELECT b.id, c.name FROM Book b JOIN b.categories c WHERE b.id IN :ids ORDER BY c.name")
+    List<Object[]> findCategoryNamesByBookIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the IDs of all published books, highest ID first.
+     *
+     * @return the IDs of the published books.
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.offer.publishState = 'PUBLISHED' ORDER BY b.id DESC")
+    List<Long> findPublishedBookIds();
+
+    /**
+     * Checks whether a book exists with an offer in the given publish state.
+     *
+     * @param bookId       the ID of the book.
+     * @param publishState the publish state of the offer.
+     * @return true if such a book exists, false otherwise.
+     */
+    boolean existsByIdAndOfferPublishState(Long bookId, PublishState publishState);
+
+    /**
+     * Finds the IDs of the books offered by a specific owner, highest ID first.
+     *
+     * @param ownerId the ID of the owner.
+     * @return the IDs of the owner's books.
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.offer.owner.id = :ownerId ORDER BY b.id DESC")
+    List<Long> findBookIdsByOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,35 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.domain.catalog.CatalogChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository interface for the shared catalog change log.
+ */
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    /**
+     * Finds the changes within a range of revisions.
+     *
+     * @param after the last revision already seen, exclusive.
+     * @param upTo  the highest revision, inclusive.
+     * @return the changes of the range that are still logged.
+     */
+    @Query("SELECT c FROM CatalogChange c WHERE c.revision > :after AND c.revision <= :upTo")
+    List<CatalogChange> findBetween(@Param("after") long after, @Param("upTo") long upTo);
+
+    /**
+     * Deletes the changes up to a revision within the current transaction.
+     *
+     * @param revision the highest revision to delete, inclusive.
+     * @return the number of deleted changes.
+     */
+    @Modifying
+    @Query("DELETE FROM CatalogChange c WHERE c.revision <= :revision")
+    int deleteUpTo(@Param("revision") long revision);
+}
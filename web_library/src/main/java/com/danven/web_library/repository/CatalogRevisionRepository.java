@@ -0,0 +1,32 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.domain.catalog.CatalogRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for the shared catalog revision counter.
+ */
+public interface CatalogRevisionRepository extends JpaRepository<CatalogRevision, Long> {
+
+    /**
+     * Increments the catalog revision within the current transaction.
+     * The row stays locked until the transaction ends, so concurrent increments are applied one after the other.
+     *
+     * @return the number of updated rows, 0 if the counter doesn't exist.
+     */
+    @Modifying
+    @Query("UPDATE CatalogRevision r SET r.revision = r.revision + 1 WHERE r.id = 1")
+    int increment();
+
+    /**
+     * Retrieves the current catalog revision.
+     *
+     * @return the revision, or empty if the counter doesn't exist.
+     */
+    @Query("SELECT r.revision FROM CatalogRevision r WHERE r.id = 1")
+    Optional<Long> findRevision();
+}
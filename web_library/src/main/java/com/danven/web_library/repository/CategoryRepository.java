@@ -2,11 +2,26 @@ package com.danven.web_library.repository;
 
 import com.danven.web_library.domain.book.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.List;
 
 /**
  * Repository interface for accessing Category entities from the database.
  */
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    /**
+     * Retrieves all categories. The result is kept in the query cache, since categories are read-only.
+     *
+     * @return all categories.
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "category-queries")
+    })
+    List<Category> findAll();
 
 }
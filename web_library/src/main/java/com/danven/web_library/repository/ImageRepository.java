@@ -1,12 +1,15 @@
 package com.danven.web_library.repository;
 
 import com.danven.web_library.domain.book.Image;
+import com.danven.web_library.domain.book.ImageFormat;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 /**
  * Repository interface for accessing Image entities from the database.
  */
@@ -20,4 +23,68 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
     @Transactional
     @Query("DELETE FROM Image i WHERE i.book.id = :bookId")
     void deleteImagesByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Finds the distinct originals of a book whose scaled derivatives haven't been generated yet.
+     *
+     * @param bookId The ID of the book.
+     * @return the digests and formats of the originals without derivatives.
+     */
+    @Query("SELECT DISTINCT i.digest AS digest, i.format AS format FROM Image i " +
+            "WHERE i.book.id = :bookId AND i.cardDigest IS NULL")
+    List<PendingOriginal> findPendingOriginalsByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Finds the distinct originals of all books whose scaled derivatives haven't been generated yet.
+     *
+     * @return the digests and formats of the originals without derivatives.
+     */
+    @Query("SELECT DISTINCT i.digest AS digest, i.format AS format FROM Image i WHERE i.cardDigest IS NULL")
+    List<PendingOriginal> findPendingOriginals();
+
+    /**
+     * Records the derivatives of an original on every image that references it.
+     *
+     * @param digest       The digest of the original.
+     * @param cardDigest   The digest of the card derivative.
+     * @param detailDigest The digest of the detail derivative.
+     * @return the number of updated images.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Image i SET i.cardDigest = :cardDigest, i.detailDigest = :detailDigest WHERE i.digest = :digest")
+    int updateDerivatives(@Param("digest") String digest,
+                          @Param("cardDigest") String cardDigest,
+                          @Param("detailDigest") String detailDigest);
+
+    /**
+     * Finds the IDs of the images of the books within a range of IDs.
+     *
+     * @param firstId The lowest book ID, inclusive.
+     * @param lastId  The highest book ID, inclusive.
+     * @return the image IDs with the IDs of their books, in display order.
+     */
+    @Query("SELECT i.book.id AS bookId, i.id AS id FROM Image i " +
+            "WHERE i.book.id BETWEEN :firstId AND :lastId ORDER BY i.position")
+    List<BookImageId> findIdsByBookIdBetween(@Param("firstId") Long firstId, @Param("lastId") Long lastId);
+
+    /**
+     * Projection of an original image that still needs derivatives.
+     */
+    interface PendingOriginal {
+
+        String getDigest();
+
+        ImageFormat getFormat();
+    }
+
+    /**
+     * Projection of the ID of an image of a book.
+     */
+    interface BookImageId {
+
+        Long getBookId();
+
+        Long getId();
+    }
 }
@@ -0,0 +1,52 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.search.SearchDocument;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only repository projecting published books into search documents.
+ */
+public interface SearchDocumentRepository extends Repository<Book, Long> {
+
+    /**
+     * Finds the search documents of all published books. Category IDs are not filled in.
+     *
+     * @return the documents of the published books.
+     */
+    @Query("SELECT new com.danven.web_library.search.SearchDocument(b.id, b.name, b.author, b.description, b.isbn) " +
+            "FROM Book b WHERE b.offer.publishState = 'PUBLISHED'")
+    List<SearchDocument> findPublishedDocuments();
+
+    /**
+     * Finds the search document of a book if it is published. Category IDs are not filled in.
+     *
+     * @param bookId the ID of the book.
+     * @return the document, or an empty Optional if the book doesn't exist or isn't published.
+     */
+    @Query("SELECT new com.danven.web_library.search.SearchDocument(b.id, b.name, b.author, b.description, b.isbn) " +
+            "FROM Book b WHERE b.id = :bookId AND b.offer.publishState = 'PUBLISHED'")
+    Optional<SearchDocument> findPublishedDocument(@Param("bookId") Long bookId);
+
+    /**
+     * Finds the categories of all published books.
+     *
+     * @return pairs of book ID and category ID.
+     */
+    @Query("SELECT b.id, c.id FROM Book b JOIN b.categories c WHERE b.offer.publishState = 'PUBLISHED'")
+    List<Object[]> findPublishedCategoryIds();
+
+    /**
+     * Finds the categories of a book.
+     *
+     * @param bookId the ID of the book.
+     * @return the IDs of the categories of the book.
+     */
+    @Query("SELECT c.id FROM Book b JOIN b.categories c WHERE b.id = :bookId")
+    List<Long> findCategoryIds(@Param("bookId") Long bookId);
+}
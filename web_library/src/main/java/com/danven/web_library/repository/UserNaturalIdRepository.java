@@ -0,0 +1,20 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.domain.user.User;
+
+import java.util.Optional;
+
+/**
+ * Repository fragment resolving users by their natural ID.
+ */
+public interface UserNaturalIdRepository {
+
+    /**
+     * Retrieves a user by email through the natural ID cache.
+     * Unlike a query, the lookup is answered from the second-level cache when the user is cached.
+     *
+     * @param email The email address of the user to retrieve.
+     * @return Optional<User> containing the user with the specified email, if found.
+     */
+    Optional<User> loadByEmail(String email);
+}
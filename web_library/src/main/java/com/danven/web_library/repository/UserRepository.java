@@ -1,7 +1,12 @@
 package com.danven.web_library.repository;
 
 import com.danven.web_library.domain.user.User;
+import com.danven.web_library.dto.UserCredentials;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -9,7 +14,7 @@ import java.util.Optional;
  * Repository interface for managing User entities in the database.
  * Extends JpaRepository to inherit basic CRUD operations.
  */
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 
     /**
      * Retrieves an Optional<User> from the database by its email address.
@@ -19,4 +24,26 @@ public interface UserRepository extends JpaRepository<User, Long> {
      *         Empty Optional if no user exists with the given email.
      */
     Optional<User> findByEmail(String email);
+
+    /**
+     * Retrieves what authenticating a user needs by their email address, without loading the user entity.
+     *
+     * @param email The email address of the user.
+     * @return the credentials, or an empty Optional if no user exists with the given email.
+     */
+    @Query("SELECT new com.danven.web_library.dto.UserCredentials(u.id, u.email, u.password, u.name, a.id) " +
+            "FROM User u LEFT JOIN Administrator a ON a.id = u.id " +
+            "WHERE u.email = :email")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    /**
+     * Replaces the password hash of a user without loading the user entity.
+     *
+     * @param id       The ID of the user.
+     * @param password The new password hash.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    void updatePassword(@Param("id") Long id, @Param("password") String password);
 }
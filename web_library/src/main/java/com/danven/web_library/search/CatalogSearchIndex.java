@@ -0,0 +1,380 @@
+package com.danven.web_library.search;
+
+import com.danven.web_library.dto.KeysetPage;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.event.CatalogChangedElsewhereEvent;
+import com.danven.web_library.event.CatalogImportedEvent;
+import com.danven.web_library.repository.SearchDocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over the published catalog.
+ * The name, author, description and ISBN of every published book are split into case-folded tokens;
+ * each token maps to the books containing it, weighted by the field it was found in.
+ * A query matches the books containing every query term, either as a whole token or as a token prefix,
+ * and ranks them by the summed weights, so no query ever scans the book table.
+ * <p>
+ * The index is built once the application is ready and patched for a single book
+ * whenever an update of that book has been committed. Like the catalog snapshot, rebuilds and patches
+ * are serialized and load their data inside the monitor, so a patch is never overwritten by a rebuild
+ * that read the book before it, and two patches of a book are applied in commit order.
+ * Searches only take the read lock and don't wait for the data of a rebuild to load.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 4;
+    private static final int ISBN_WEIGHT = 4;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * Share of the weight a term earns when it only matches the beginning of a token.
+     */
+    private static final double PREFIX_FACTOR = 0.5;
+
+    /**
+     * Largest number of distinct tokens a single prefix term is expanded to.
+     */
+    static final int MAX_PREFIX_EXPANSIONS = 256;
+
+    /**
+     * Order of the results: descending score, then descending book ID.
+     */
+    private static final Comparator<Map.Entry<Long, Double>> RANKING =
+            Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+    private final SearchDocumentRepository searchDocumentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> tokensByBook = new HashMap<>();
+    private final Map<Long, Set<Long>> categoriesByBook = new HashMap<>();
+
+    /**
+     * Constructs a new CatalogSearchIndex.
+     *
+     * @param searchDocumentRepository the repository providing the searchable text of published books.
+     */
+    public CatalogSearchIndex(SearchDocumentRepository searchDocumentRepository) {
+        this.searchDocumentRepository = searchDocumentRepository;
+    }
+
+    /**
+     * Builds the index from all published books once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        Map<Long, SearchDocument> documents = searchDocumentRepository.findPublishedDocuments().stream()
+                .collect(Collectors.toMap(SearchDocument::getBookId, document -> document));
+        for (Object[] row : searchDocumentRepository.findPublishedCategoryIds()) {
+            SearchDocument document = documents.get((Long) row[0]);
+            if (document != null) {
+                document.addCategoryId((Long) row[1]);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            tokensByBook.clear();
+            categoriesByBook.clear();
+            documents.values().forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} published books for search", documents.size());
+    }
+
+    /**
+     * Rebuilds the index once an import has finished.
+     *
+     * @param event the import event.
+     */
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        onApplicationReady();
+    }
+
+    /**
+     * Re-indexes the books another instance has changed, or rebuilds the index if it isn't known which
+     * books changed.
+     *
+     * @param event the event announcing the change.
+     */
+    @EventListener
+    public synchronized void onCatalogChangedElsewhere(CatalogChangedElsewhereEvent event) {
+        event.getBookIds().ifPresentOrElse(bookIds -> bookIds.forEach(this::reindex), this::onApplicationReady);
+    }
+
+    /**
+     * Re-indexes a book once its update has been committed.
+     * The book is dropped from the index if it is no longer published.
+     *
+     * @param event the book update event.
+     */
+    @TransactionalEventListener
+    public synchronized void onBookUpdated(BookUpdatedEvent event) {
+        reindex(event.getBookId());
+    }
+
+    /**
+     * Replaces the entries of a book with its current published state, or drops them.
+     * Callers hold the monitor.
+     *
+     * @param bookId the ID of the book.
+     */
+    private void reindex(Long bookId) {
+        SearchDocument document = searchDocumentRepository.findPublishedDocument(bookId).orElse(null);
+        if (document != null) {
+            searchDocumentRepository.findCategoryIds(bookId).forEach(document::addCategoryId);
+        }
+        lock.writeLock().lock();
+        try {
+            remove(bookId);
+            if (document != null) {
+                add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the published catalog and returns one page of the results.
+     * Books must match every term of the query; a blank query matches every book.
+     * Results are ordered by descending relevance, then newest first. Only the requested page is sorted,
+     * so the cost of a page grows with the number of matches, not with their full ranking.
+     * <p>
+     * The cursor is the ID of the last book of the previous page; the page continues after its current
+     * position in the ranking. A cursor that no longer matches the query, e.g. because the book was
+     * unpublished or changed in between, ends the results instead of starting over.
+     *
+     * @param query      the search query, may be null.
+     * @param categoryId the category the books must belong to, or null for any category.
+     * @param after      the cursor returned with the previous page, or null for the first page.
+     * @param limit      the page size.
+     * @return the IDs of the matching books on the page, best match first, with the cursor of the next page.
+     */
+    public KeysetPage<Long> search(String query, Long categoryId, Long after, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = score(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + termScores.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return new KeysetPage<>(List.of(), null);
+                }
+            }
+            if (scores == null) {
+                scores = new HashMap<>();
+                for (Long bookId : tokensByBook.keySet()) {
+                    scores.put(bookId, 0.0);
+                }
+            }
+            if (categoryId != null) {
+                scores.keySet().removeIf(bookId -> !categoriesByBook.get(bookId).contains(categoryId));
+            }
+            return page(scores, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Selects the page of scored books following the cursor, keeping no more than one page in a heap.
+     *
+     * @param scores the score of each matching book.
+     * @param after  the ID of the last book of the previous page, or null for the first page.
+     * @param limit  the page size.
+     * @return the IDs of the books on the page with the cursor of the next page.
+     */
+    private static KeysetPage<Long> page(Map<Long, Double> scores, Long after, int limit) {
+        Map.Entry<Long, Double> cursor = null;
+        if (after != null) {
+            Double score = scores.get(after);
+            if (score == null) {
+                return new KeysetPage<>(List.of(), null);
+            }
+            cursor = Map.entry(after, score);
+        }
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (cursor != null && RANKING.compare(entry, cursor) <= 0) {
+                continue;
+            }
+            best.add(entry);
+            if (best.size() > limit + 1) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        boolean more = ranked.size() > limit;
+        List<Long> ids = ranked.stream()
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        return new KeysetPage<>(ids, more ? ids.get(ids.size() - 1) : null);
+    }
+
+    /**
+     * Checks whether a query contains at least one searchable term.
+     *
+     * @param query the search query, may be null.
+     * @return true if the query has terms, false otherwise.
+     */
+    public static boolean hasTerms(String query) {
+        return !tokenize(query).isEmpty();
+    }
+
+    /**
+     * Scores every book matching a single term, exactly or by prefix.
+     *
+     * @param term the case-folded term.
+     * @return the score of each matching book.
+     */
+    private Map<Long, Double> score(String term) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            exact.forEach((bookId, weight) -> scores.merge(bookId, (double) weight, Double::sum));
+        }
+        for (Map<Long, Integer> books : prefixExpansions(term)) {
+            books.forEach((bookId, weight) -> scores.merge(bookId, weight * PREFIX_FACTOR, Math::max));
+        }
+        return scores;
+    }
+
+    /**
+     * Finds the postings of the tokens a term is a proper prefix of.
+     * If there are more than {@link #MAX_PREFIX_EXPANSIONS} such tokens, the closest ones are kept:
+     * the shortest tokens first, and among tokens of the same length those found in the most books.
+     *
+     * @param term the case-folded term.
+     * @return the postings of the kept tokens.
+     */
+    private Collection<Map<Long, Integer>> prefixExpansions(String term) {
+        NavigableMap<String, Map<Long, Integer>> expansions =
+                postings.subMap(term, false, term + Character.MAX_VALUE, false);
+        if (expansions.size() <= MAX_PREFIX_EXPANSIONS) {
+            return expansions.values();
+        }
+        log.debug("Prefix {} matches {} tokens, only the closest {} are searched",
+                term, expansions.size(), MAX_PREFIX_EXPANSIONS);
+        return expansions.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, Map<Long, Integer>>>comparingInt(entry -> entry.getKey().length())
+                        .thenComparing(entry -> entry.getValue().size(), Comparator.reverseOrder()))
+                .limit(MAX_PREFIX_EXPANSIONS)
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Adds a document to the index. The caller must hold the write lock.
+     *
+     * @param document the document to add.
+     */
+    private void add(SearchDocument document) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTokens(weights, document.getName(), NAME_WEIGHT);
+        addTokens(weights, document.getAuthor(), AUTHOR_WEIGHT);
+        addTokens(weights, document.getDescription(), DESCRIPTION_WEIGHT);
+        addTokens(weights, document.getIsbn(), ISBN_WEIGHT);
+        if (document.getIsbn() != null) {
+            String compactIsbn = String.join("", tokenize(document.getIsbn()));
+            if (!compactIsbn.isEmpty()) {
+                weights.putIfAbsent(compactIsbn, ISBN_WEIGHT);
+            }
+        }
+        Long bookId = document.getBookId();
+        weights.forEach((token, weight) -> postings.computeIfAbsent(token, key -> new HashMap<>()).put(bookId, weight));
+        tokensByBook.put(bookId, weights.keySet());
+        categoriesByBook.put(bookId, Set.copyOf(document.getCategoryIds()));
+    }
+
+    /**
+     * Removes a book from the index, if present. The caller must hold the write lock.
+     *
+     * @param bookId the ID of the book.
+     */
+    private void remove(Long bookId) {
+        Set<String> tokens = tokensByBook.remove(bookId);
+        categoriesByBook.remove(bookId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Map<Long, Integer> books = postings.get(token);
+            books.remove(bookId);
+            if (books.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Adds the tokens of a field to the token weights of a document.
+     * A token occurring in several fields accumulates the weight of each field once.
+     *
+     * @param weights the token weights of the document.
+     * @param text    the text of the field, may be null.
+     * @param weight  the weight of the field.
+     */
+    private static void addTokens(Map<String, Integer> weights, String text, int weight) {
+        for (String token : new HashSet<>(tokenize(text))) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * Splits text into lower-case tokens of letters and digits.
+     *
+     * @param text the text to split, may be null.
+     * @return the tokens in order of occurrence.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,53 @@
+package com.danven.web_library.search;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Searchable text of a published book as fed into the catalog search index.
+ */
+@Getter
+@ToString
+public class SearchDocument {
+
+    private final Long bookId;
+
+    private final String name;
+
+    private final String author;
+
+    private final String description;
+
+    private final String isbn;
+
+    private final Set<Long> categoryIds = new HashSet<>();
+
+    /**
+     * Constructs a new SearchDocument from the columns selected by the search document query.
+     *
+     * @param bookId      the ID of the book.
+     * @param name        the name of the book.
+     * @param author      the author of the book.
+     * @param description the description of the book.
+     * @param isbn        the ISBN of the book.
+     */
+    public SearchDocument(Long bookId, String name, String author, String description, String isbn) {
+        this.bookId = bookId;
+        this.name = name;
+        this.author = author;
+        this.description = description;
+        this.isbn = isbn;
+    }
+
+    /**
+     * Adds a category the book belongs to.
+     *
+     * @param categoryId the ID of the category.
+     */
+    public void addCategoryId(Long categoryId) {
+        categoryIds.add(categoryId);
+    }
+}
@@ -4,11 +4,11 @@ import com.danven.web_library.domain.book.Book;
 import com.danven.web_library.dto.BookUpdateDto;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Optional;
 
 public interface BookService {
 
     void updateBookWithOffer(Long id, BookUpdateDto bookUpdateDto)  throws IOException;
 
-    List<Book> getBooksByOwner(Long id);
+    Optional<Book> getBookOfOwner(Long bookId, Long ownerId);
 }
@@ -3,21 +3,32 @@ package com.danven.web_library.service;
 import com.danven.web_library.domain.book.*;
 import com.danven.web_library.domain.offer.Offer;
 import com.danven.web_library.dto.BookUpdateDto;
+import com.danven.web_library.event.BookUpdatedEvent;
 import com.danven.web_library.exceptions.ValidationException;
 import com.danven.web_library.repository.BookRepository;
 import com.danven.web_library.repository.CategoryRepository;
 import com.danven.web_library.repository.ImageRepository;
+import com.danven.web_library.storage.ImageStore;
+import com.danven.web_library.storage.StoredBlob;
+import com.danven.web_library.storage.UploadBudget;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -32,7 +43,13 @@ public class BookServiceImpl implements BookService {
     private final BookRepository bookRepository;
     private final CategoryRepository categoryRepository;
     private final ImageRepository imageRepository;
+    private final ImageStore imageStore;
+    private final UploadBudget uploadBudget;
     private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * Constructs a new instance of BookService.
@@ -40,19 +57,27 @@ public class BookServiceImpl implements BookService {
      * @param bookRepository     The repository for Book entities.
      * @param categoryRepository The repository for Category entities.
      * @param imageRepository    The repository for Image entities.
+     * @param imageStore         The store holding the image content.
+     * @param uploadBudget       The global limit on upload bytes in flight.
      * @param validator          The validator for validating entities.
+     * @param eventPublisher     The publisher for book update events.
      */
     public BookServiceImpl(BookRepository bookRepository, CategoryRepository categoryRepository,
-                           ImageRepository imageRepository, Validator validator) {
+                           ImageRepository imageRepository, ImageStore imageStore, UploadBudget uploadBudget,
+                           Validator validator, ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
         this.categoryRepository = categoryRepository;
         this.imageRepository = imageRepository;
+        this.imageStore = imageStore;
+        this.uploadBudget = uploadBudget;
         this.validator = validator;
+        this.eventPublisher = eventPublisher;
     }
 
 
     /**
      * Updates a book entity along with its associated offer and images.
+     * Uploaded images replace all existing images, in upload order; the first one becomes the preview image.
      *
      * @param bookId        The ID of the book to update.
      * @param bookUpdateDto DTO containing updated information for the book.
@@ -63,7 +88,8 @@ public class BookServiceImpl implements BookService {
     @Transactional
     public void updateBookWithOffer(Long bookId, BookUpdateDto bookUpdateDto) throws IOException {
         try {
-            Book book = bookRepository.findById(bookId).orElseThrow(() -> new ValidationException("No such book"));
+            Book book = bookRepository.findAggregateById(bookId)
+                    .orElseThrow(() -> new ValidationException("No such book"));
 
             book.setName(bookUpdateDto.getName());
             book.setYearOfPublishing(bookUpdateDto.getYearOfPublishing());
@@ -88,36 +114,42 @@ public class BookServiceImpl implements BookService {
             offer.setNumberOfCopies(bookUpdateDto.getNumberOfCopies());
             offer.setPrice(bookUpdateDto.getPrice());
 
-            Image imageFirst = processImageUpload(book, bookUpdateDto.getFile1(), true);
-            Image imageSecond = processImageUpload(book, bookUpdateDto.getFile2(), false);
-            Image imageThird = processImageUpload(book, bookUpdateDto.getFile3(), false);
-
-
-            validateEntities(book, offer, imageFirst, imageSecond, imageThird);
-
-            if (imageFirst != null || imageSecond != null || imageThird != null) {
+            List<MultipartFile> files = Stream.of(bookUpdateDto.getFile1(), bookUpdateDto.getFile2(), bookUpdateDto.getFile3())
+                    .filter(file -> file != null && !file.isEmpty())
+                    .collect(Collectors.toList());
+            boolean imagesChanged = !files.isEmpty();
+            if (imagesChanged) {
+                // Images are mapped by the image side, so replacing them doesn't bump the version of the book by itself.
+                entityManager.lock(book, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
                 imageRepository.deleteAll(book.getImages());
                 book.getImages().forEach(book::removeImage);
-                if (imageFirst != null) {
-                    book.addImage(imageFirst);
-                }
-                if (imageSecond != null) {
-                    book.addImage(imageSecond);
-                }
-                if (imageThird != null) {
-                    book.addImage(imageThird);
-                }
             }
+            List<Image> images = new ArrayList<>();
+            for (MultipartFile file : files) {
+                images.add(processImageUpload(book, file, images.isEmpty(), images.size()));
+            }
+
+            validateEntities(book, offer, images);
+
             bookRepository.save(book);
+            eventPublisher.publishEvent(new BookUpdatedEvent(bookId, imagesChanged));
         } catch (DataIntegrityViolationException e) {
             String errorMessage = getConstraintViolationMessage(e);
             throw new ValidationException(errorMessage);
         }
     }
 
+    /**
+     * Retrieves a book with its offer, images, and categories if it is offered by the given owner.
+     *
+     * @param bookId  The ID of the book.
+     * @param ownerId The ID of the owner.
+     * @return The book, or an empty Optional if it doesn't exist or belongs to another owner.
+     */
     @Override
-    public List<Book> getBooksByOwner(Long id) {
-        return bookRepository.findBooksByOwnerId(id);
+    @Transactional(readOnly = true)
+    public Optional<Book> getBookOfOwner(Long bookId, Long ownerId) {
+        return bookRepository.findAggregateByIdAndOwnerId(bookId, ownerId);
     }
 
     /**
@@ -140,21 +172,17 @@ public class BookServiceImpl implements BookService {
     /**
      * Validates the entities (Book, Offer, Images) using the Validator.
      *
-     * @param book        The Book entity to validate.
-     * @param offer       The Offer entity to validate.
-     * @param firstImage  The first Image entity to validate.
-     * @param secondImage The second Image entity to validate.
-     * @param thirdImage  The third Image entity to validate.
+     * @param book   The Book entity to validate.
+     * @param offer  The Offer entity to validate.
+     * @param images The newly uploaded Image entities to validate.
      * @throws ConstraintViolationException If any validation constraints are violated.
      */
-    private void validateEntities(Book book, Offer offer, Image firstImage, Image secondImage, Image thirdImage) {
+    private void validateEntities(Book book, Offer offer, List<Image> images) {
         Set<ConstraintViolation<Book>> bookViolations = validator.validate(book);
         Set<ConstraintViolation<Offer>> offerViolations = validator.validate(offer);
-        Set<ConstraintViolation<Image>> firstImageViolations = firstImage != null ? validator.validate(firstImage) : Set.of();
-        Set<ConstraintViolation<Image>> secondImageViolations = secondImage != null ? validator.validate(secondImage) : Set.of();
-        Set<ConstraintViolation<Image>> thirdImageViolations = thirdImage != null ? validator.validate(thirdImage) : Set.of();
+        Stream<Set<ConstraintViolation<Image>>> imageViolations = images.stream().map(image -> validator.validate(image));
 
-        Set<ConstraintViolation<?>> allViolations = Stream.of(bookViolations, offerViolations, firstImageViolations, secondImageViolations, thirdImageViolations)
+        Set<ConstraintViolation<?>> allViolations = Stream.concat(Stream.of(bookViolations, offerViolations), imageViolations)
                 .flatMap(Set::stream)
                 .collect(Collectors.toSet());
 
@@ -167,24 +195,31 @@ public class BookServiceImpl implements BookService {
     }
 
     /**
-     * Processes the uploaded image file and creates an Image entity.
+     * Streams the uploaded image file into the image store and creates an Image entity referencing it.
+     * The file is never read into memory as a whole; its size is checked while it is copied.
      *
      * @param book      The Book entity associated with the image.
      * @param file      The uploaded file to process.
      * @param isPreview Flag indicating if the image is a preview image.
-     * @return The created Image entity, or null if no file was uploaded.
-     * @throws IOException If there is an error reading the image file.
+     * @param position  The position of the image among the images of the book.
+     * @return The created Image entity.
+     * @throws IOException If there is an error reading or storing the image file.
      */
-    private Image processImageUpload(Book book, MultipartFile file, boolean isPreview) throws IOException {
-        if (file != null && !file.isEmpty()) {
-            return new Image(
-                    file.getBytes(),
-                    getImageFormat(file),
-                    isPreview,
-                    book
-            );
-        }
-        return null;
+    private Image processImageUpload(Book book, MultipartFile file, boolean isPreview, int position) throws IOException {
+        ImageFormat format = getImageFormat(file);
+        StoredBlob blob = uploadBudget.reserve(file.getSize(), () -> {
+            try (InputStream content = file.getInputStream()) {
+                return imageStore.store(content, uploadBudget.getMaxFileSizeInBytes());
+            }
+        });
+        return new Image(
+                blob.getDigest(),
+                blob.getSizeInBytes(),
+                format,
+                isPreview,
+                position,
+                book
+        );
     }
 
     /**
@@ -0,0 +1,22 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.dto.BookDto;
+import com.danven.web_library.dto.BookSummaryDto;
+import com.danven.web_library.dto.CategoryDto;
+import com.danven.web_library.dto.KeysetPage;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CatalogApiService {
+
+    KeysetPage<BookSummaryDto> getBooks(String query, Long categoryId, Long after, Integer size);
+
+    Optional<Long> findPublishedVersion(Long bookId);
+
+    Optional<BookDto> getBook(Long bookId);
+
+    List<BookDto> getBooks(List<Long> bookIds);
+
+    List<CategoryDto> getCategories();
+}
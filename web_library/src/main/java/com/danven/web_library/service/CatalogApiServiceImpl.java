@@ -0,0 +1,198 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.catalog.CatalogSnapshot;
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.book.Category;
+import com.danven.web_library.domain.book.DiskBook;
+import com.danven.web_library.domain.book.IDiskBook;
+import com.danven.web_library.domain.book.PaperBook;
+import com.danven.web_library.domain.book.PaperBookWithDisk;
+import com.danven.web_library.domain.offer.ContactInfo;
+import com.danven.web_library.domain.offer.Offer;
+import com.danven.web_library.domain.offer.OfferType;
+import com.danven.web_library.domain.offer.PublishState;
+import com.danven.web_library.dto.BookDto;
+import com.danven.web_library.dto.BookSummaryDto;
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.dto.CategoryDto;
+import com.danven.web_library.dto.KeysetPage;
+import com.danven.web_library.dto.OfferDto;
+import com.danven.web_library.exceptions.ValidationException;
+import com.danven.web_library.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for the JSON catalog API.
+ * Listings are served from the catalog snapshot like the catalog pages; single books and batches are
+ * loaded as aggregates and mapped to DTOs within the transaction, so no entity leaves the service.
+ * Only published books are visible.
+ */
+@Service
+public class CatalogApiServiceImpl implements CatalogApiService {
+
+    private final CatalogService catalogService;
+    private final CategoryService categoryService;
+    private final CatalogSnapshot catalogSnapshot;
+    private final BookRepository bookRepository;
+    private final int maxBatchSize;
+
+    /**
+     * Constructs a new CatalogApiServiceImpl.
+     *
+     * @param catalogService  the service reading catalog cards.
+     * @param categoryService the service reading categories.
+     * @param catalogSnapshot the in-memory copy of the published catalog.
+     * @param bookRepository  the repository loading book aggregates.
+     * @param maxBatchSize    the largest number of books a batch lookup may request.
+     */
+    public CatalogApiServiceImpl(CatalogService catalogService, CategoryService categoryService,
+                                 CatalogSnapshot catalogSnapshot, BookRepository bookRepository,
+                                 @Value("${web-library.api.max-batch-size:50}") int maxBatchSize) {
+        this.catalogService = catalogService;
+        this.categoryService = categoryService;
+        this.catalogSnapshot = catalogSnapshot;
+        this.bookRepository = bookRepository;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Retrieves one page of published books, searched and filtered like the home page.
+     *
+     * @param query      the search query, may be null.
+     * @param categoryId the category the books must belong to, or null for any category.
+     * @param after      the cursor returned with the previous page, or null for the first page.
+     * @param size       the requested page size, or null for the default.
+     * @return the page of books with the cursor of the next page.
+     */
+    @Override
+    public KeysetPage<BookSummaryDto> getBooks(String query, Long categoryId, Long after, Integer size) {
+        KeysetPage<CatalogCard> page = catalogService.searchPublishedCards(query, categoryId, after, size);
+        List<BookSummaryDto> items = page.getItems().stream()
+                .map(CatalogApiServiceImpl::toSummary)
+                .collect(Collectors.toList());
+        return new KeysetPage<>(items, page.getNextCursor());
+    }
+
+    /**
+     * Looks up the version of a published book in the catalog snapshot, without touching the database.
+     *
+     * @param bookId the ID of the book.
+     * @return the version, or an empty Optional if the book isn't published.
+     */
+    @Override
+    public Optional<Long> findPublishedVersion(Long bookId) {
+        return catalogSnapshot.current().card(bookId).map(CatalogCard::getVersion);
+    }
+
+    /**
+     * Retrieves a published book with its offer.
+     *
+     * @param bookId the ID of the book.
+     * @return the book, or an empty Optional if it doesn't exist or isn't published.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BookDto> getBook(Long bookId) {
+        return bookRepository.findAggregateById(bookId)
+                .filter(CatalogApiServiceImpl::isPublished)
+                .map(CatalogApiServiceImpl::toDto);
+    }
+
+    /**
+     * Retrieves several published books with their offers at once.
+     *
+     * @param bookIds the IDs of the books, at most the maximum batch size.
+     * @return the books in the order of the IDs; IDs of books that don't exist or aren't published are skipped.
+     * @throws ValidationException if more IDs than the maximum batch size are requested.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookDto> getBooks(List<Long> bookIds) {
+        if (bookIds.size() > maxBatchSize) {
+            throw new ValidationException("At most " + maxBatchSize + " books can be requested at once");
+        }
+        return bookRepository.findAggregatesByIdIn(new LinkedHashSet<>(bookIds)).stream()
+                .filter(CatalogApiServiceImpl::isPublished)
+                .map(CatalogApiServiceImpl::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves all categories.
+     *
+     * @return the categories.
+     */
+    @Override
+    public List<CategoryDto> getCategories() {
+        return categoryService.getAllCategories().stream()
+                .map(category -> new CategoryDto(category.getId(), category.getName()))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isPublished(Book book) {
+        return book.getOffer().getPublishState() == PublishState.PUBLISHED;
+    }
+
+    private static BookSummaryDto toSummary(CatalogCard card) {
+        List<String> offerTypes = new ArrayList<>();
+        if (card.isBasicOffer()) {
+            offerTypes.add(OfferType.BASIC_OFFER.name());
+        }
+        if (card.isDiscountOffer()) {
+            offerTypes.add(OfferType.DISCOUNT_OFFER.name());
+        }
+        if (card.isLimitedTimeOffer()) {
+            offerTypes.add(OfferType.LIMITED_TIME_OFFER.name());
+        }
+        return new BookSummaryDto(card.getBookId(), card.getVersion(), card.getName(), card.getAuthor(),
+                card.getPrice(), card.getEffectivePrice(), offerTypes, card.getCategoryNames(),
+                card.getPreviewImageId() == null ? null : "/images/" + card.getPreviewImageId());
+    }
+
+    private static BookDto toDto(Book book) {
+        Integer numberOfPages = book instanceof PaperBook ? ((PaperBook) book).getNumberOfPages() : null;
+        Boolean diskIsGlued = book instanceof PaperBookWithDisk ? ((PaperBookWithDisk) book).isDiskIsGlued() : null;
+        Double durationInHours = book instanceof IDiskBook ? ((IDiskBook) book).getDurationInHours() : null;
+        String diskFormat = book instanceof IDiskBook ? ((IDiskBook) book).getDiskFormat().name() : null;
+        List<String> categories = book.getCategories().stream()
+                .map(Category::getName)
+                .sorted()
+                .collect(Collectors.toList());
+        List<String> imageUrls = book.getImages().stream()
+                .map(image -> "/images/" + image.getId())
+                .collect(Collectors.toList());
+        return new BookDto(book.getId(), book.getAggregateVersion(), type(book), book.getName(),
+                book.getYearOfPublishing(), book.getDescription(), book.getAuthor(), book.getIsbn(), categories,
+                numberOfPages, diskIsGlued, durationInHours, diskFormat, imageUrls, toDto(book.getOffer()));
+    }
+
+    private static OfferDto toDto(Offer offer) {
+        ContactInfo contactInfo = offer.getContactInfo();
+        double effectivePrice = offer.getOfferTypes().contains(OfferType.DISCOUNT_OFFER) && offer.getDiscount().isPresent()
+                ? offer.getPriceWithDiscount()
+                : offer.getPrice();
+        List<String> offerTypes = offer.getOfferTypes().stream()
+                .sorted(Comparator.naturalOrder())
+                .map(Enum::name)
+                .collect(Collectors.toList());
+        return new OfferDto(offer.getId(), offer.getPrice(), effectivePrice, offer.getDiscount().orElse(null),
+                offer.getNumberOfCopies(), offerTypes, offer.getEndDate().orElse(null), contactInfo.getEmail(),
+                contactInfo.getTelephoneNumber().orElse(null), contactInfo.getSocialMediaLink().orElse(null));
+    }
+
+    private static String type(Book book) {
+        if (book instanceof PaperBookWithDisk) {
+            return "PAPER_BOOK_WITH_DISK";
+        }
+        return book instanceof DiskBook ? "DISK_BOOK" : "PAPER_BOOK";
+    }
+}
@@ -0,0 +1,14 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.exporting.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface CatalogExportService {
+
+    Instant getLastModified();
+
+    long exportCatalog(ExportFormat format, OutputStream output) throws IOException;
+}
@@ -0,0 +1,150 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.catalog.CatalogSnapshot;
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.exceptions.ExportBusyException;
+import com.danven.web_library.exporting.ExportFormat;
+import com.danven.web_library.exporting.ExportRecordWriter;
+import com.danven.web_library.exporting.OfferRecordExporter;
+import com.danven.web_library.repository.BookRepository;
+import com.danven.web_library.repository.ImageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation exporting the published catalog as CSV or NDJSON.
+ * <p>
+ * Books are read from a database cursor rather than loaded as a list, and written in chunks: for every chunk
+ * the categories and images of its books are loaded with one query each, the records are written and flushed
+ * to the output, and the persistence context is cleared. However large the catalog, only one chunk of books
+ * is held in memory, and the output is sent while the rest is still being read. Since books are streamed
+ * in ID order, a chunk covers a range of IDs, by which its categories and images are looked up; rows of
+ * unpublished books within the range are skipped.
+ * <p>
+ * Each export holds a database connection and a cursor for as long as the client takes to download the file,
+ * so only a limited number of exports run at the same time; further requests are rejected rather than queued.
+ */
+@Service
+public class CatalogExportServiceImpl implements CatalogExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogExportServiceImpl.class);
+
+    /**
+     * Number of books written between two flushes, the same as the fetch size of the cursor.
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final ImageRepository imageRepository;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exports;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructs a new CatalogExportServiceImpl.
+     *
+     * @param bookRepository       the repository to use for streaming the published books and loading their categories.
+     * @param imageRepository      the repository to use for loading the images of the books.
+     * @param catalogSnapshot      the in-memory catalog, which knows when the published catalog last changed.
+     * @param objectMapper         the mapper writing NDJSON files.
+     * @param maxConcurrentExports the number of exports that may run at the same time.
+     */
+    public CatalogExportServiceImpl(BookRepository bookRepository, ImageRepository imageRepository,
+                                    CatalogSnapshot catalogSnapshot, ObjectMapper objectMapper,
+                                    @Value("${web-library.export.max-concurrent-exports:2}") int maxConcurrentExports) {
+        this.bookRepository = bookRepository;
+        this.imageRepository = imageRepository;
+        this.catalogSnapshot = catalogSnapshot;
+        this.objectMapper = objectMapper;
+        this.exports = new Semaphore(maxConcurrentExports);
+    }
+
+    /**
+     * Returns when the published catalog last changed, in whole seconds as used by HTTP dates.
+     *
+     * @return the last modification time of the published catalog.
+     */
+    @Override
+    public Instant getLastModified() {
+        return catalogSnapshot.current().getCreatedAt().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Writes all published offers to the output, lowest book ID first, and closes the output.
+     *
+     * @param format the format of the file.
+     * @param output the stream receiving the file in UTF-8.
+     * @return the number of exported offers.
+     * @throws IOException         if the output can't be written.
+     * @throws ExportBusyException if the maximum number of exports is already running; nothing has been written then.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportCatalog(ExportFormat format, OutputStream output) throws IOException {
+        if (!exports.tryAcquire()) {
+            throw new ExportBusyException("Too many catalog exports are running, try again later");
+        }
+        long exported = 0;
+        long start = System.nanoTime();
+        BufferedWriter text = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (ExportRecordWriter writer = format.open(text, OfferRecordExporter.FIELDS, objectMapper);
+             Stream<Book> books = bookRepository.streamPublished()) {
+            List<Book> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    writeChunk(chunk, writer);
+                    exported += chunk.size();
+                    chunk.clear();
+                }
+            }
+        } finally {
+            exports.release();
+        }
+        log.info("Exported {} offers as {} in {} ms", exported, format, (System.nanoTime() - start) / 1_000_000);
+        return exported;
+    }
+
+    private void writeChunk(List<Book> chunk, ExportRecordWriter writer) throws IOException {
+        Long firstId = chunk.get(0).getId();
+        Long lastId = chunk.get(chunk.size() - 1).getId();
+        Map<Long, List<String>> categoryNames = bookRepository.findCategoryNamesByBookIdBetween(firstId, lastId).stream()
+                .collect(Collectors.groupingBy(BookRepository.BookCategoryName::getBookId,
+                        Collectors.mapping(BookRepository.BookCategoryName::getName, Collectors.toList())));
+        Map<Long, List<Long>> imageIds = imageRepository.findIdsByBookIdBetween(firstId, lastId).stream()
+                .collect(Collectors.groupingBy(ImageRepository.BookImageId::getBookId,
+                        Collectors.mapping(ImageRepository.BookImageId::getId, Collectors.toList())));
+        for (Book book : chunk) {
+            writer.write(OfferRecordExporter.toRecord(book,
+                    categoryNames.getOrDefault(book.getId(), List.of()),
+                    imageIds.getOrDefault(book.getId(), List.of())));
+        }
+        writer.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.importing.CatalogImportReport;
+import com.danven.web_library.importing.ImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface CatalogImportService {
+
+    CatalogImportReport importCatalog(InputStream content, ImportFormat format, Long ownerId) throws IOException;
+}
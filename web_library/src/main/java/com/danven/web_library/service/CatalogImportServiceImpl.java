@@ -0,0 +1,446 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.domain.book.Category;
+import com.danven.web_library.domain.book.ImageFormat;
+import com.danven.web_library.domain.offer.Offer;
+import com.danven.web_library.domain.user.Customer;
+import com.danven.web_library.event.CatalogImportedEvent;
+import com.danven.web_library.exceptions.ImportInProgressException;
+import com.danven.web_library.exceptions.ValidationException;
+import com.danven.web_library.importing.CatalogImportReport;
+import com.danven.web_library.importing.ImportFormat;
+import com.danven.web_library.importing.ImportRecord;
+import com.danven.web_library.importing.ImportRecordReader;
+import com.danven.web_library.importing.ImportRow;
+import com.danven.web_library.importing.ImportedImage;
+import com.danven.web_library.importing.OfferRecordMapper;
+import com.danven.web_library.repository.CategoryRepository;
+import com.danven.web_library.repository.CustomerRepository;
+import com.danven.web_library.storage.ImageStore;
+import com.danven.web_library.storage.StoredBlob;
+import com.danven.web_library.storage.UploadBudget;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation importing offers from CSV or NDJSON files.
+ * <p>
+ * An import runs as a pipeline of three stages connected by bounded queues: one thread parses the file
+ * into records, one validates the records and copies their images into the image store, and the calling
+ * thread saves the valid rows. A full queue blocks the stage in front of it, so however large the file,
+ * only a few batches of rows are held in memory. Rows are saved in batches, each in its own transaction,
+ * and the persistence context is cleared after every batch. When a batch fails, its rows are saved again
+ * one by one, so that only the offending rows are rejected. Rejected rows are recorded in the report
+ * with the line they start on; rows saved before a failure stay imported.
+ */
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportServiceImpl.class);
+
+    private static final ImportRecord END_OF_RECORDS = ImportRecord.malformed(-1, "End of records");
+
+    private static final ImportRow END_OF_ROWS = new ImportRow(END_OF_RECORDS, List.of());
+
+    /**
+     * Number of imported images remembered per import, so that an image shared by many rows is stored once.
+     */
+    private static final int CACHED_IMAGES = 256;
+
+    private final CustomerRepository customerRepository;
+    private final CategoryRepository categoryRepository;
+    private final ImageStore imageStore;
+    private final UploadBudget uploadBudget;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore imports;
+    private final Path imageDirectory;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int maxReportedErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructs a new CatalogImportServiceImpl.
+     *
+     * @param customerRepository   the repository to use for loading the owner of the imported offers.
+     * @param categoryRepository   the repository to use for resolving category names.
+     * @param imageStore           the store receiving the images of the imported books.
+     * @param uploadBudget         the upload limits, whose file size limit applies to imported images too.
+     * @param validator            the validator checking the created entities.
+     * @param objectMapper         the mapper parsing NDJSON files.
+     * @param eventPublisher       the publisher announcing finished imports.
+     * @param executor             the executor running the parsing and validation stages.
+     * @param transactionManager   the transaction manager saving the batches.
+     * @param maxConcurrentImports the number of imports that may run at the same time.
+     * @param imageDirectory       the directory image paths of the import files are resolved against.
+     * @param batchSize            the number of rows saved in one transaction.
+     * @param queueCapacity        the number of records or rows each queue between two stages holds.
+     * @param maxReportedErrors    the maximum number of rejected rows listed in a report.
+     */
+    public CatalogImportServiceImpl(CustomerRepository customerRepository,
+                                    CategoryRepository categoryRepository,
+                                    ImageStore imageStore,
+                                    UploadBudget uploadBudget,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Qualifier("catalogImportExecutor") AsyncTaskExecutor executor,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${web-library.import.max-concurrent-imports:1}") int maxConcurrentImports,
+                                    @Value("${web-library.import.image-directory:./data/import}") Path imageDirectory,
+                                    @Value("${web-library.import.batch-size:500}") int batchSize,
+                                    @Value("${web-library.import.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${web-library.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.customerRepository = customerRepository;
+        this.categoryRepository = categoryRepository;
+        this.imageStore = imageStore;
+        this.uploadBudget = uploadBudget;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.imports = new Semaphore(maxConcurrentImports);
+        this.imageDirectory = imageDirectory.toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports the offers of a file for the given owner.
+     *
+     * @param content the content of the file, read as UTF-8; the stream is closed once it has been read.
+     * @param format  the format of the file.
+     * @param ownerId the ID of the customer offering the imported books.
+     * @return the report of the import.
+     * @throws IOException                if the file can't be read.
+     * @throws ValidationException        if the owner is not a customer.
+     * @throws ImportInProgressException if the maximum number of imports is already running.
+     */
+    @Override
+    public CatalogImportReport importCatalog(InputStream content, ImportFormat format, Long ownerId) throws IOException {
+        if (!imports.tryAcquire()) {
+            throw new ImportInProgressException("Another catalog import is running, try again later");
+        }
+        CatalogImportReport report = new CatalogImportReport(maxReportedErrors);
+        try {
+            long start = System.nanoTime();
+            Customer owner = loadOwner(ownerId);
+            Map<String, Category> categories = loadCategories();
+            BlockingQueue<ImportRecord> records = new ArrayBlockingQueue<>(queueCapacity);
+            BlockingQueue<ImportRow> rows = new ArrayBlockingQueue<>(queueCapacity);
+            ImportRecordReader reader = format.open(new InputStreamReader(content, StandardCharsets.UTF_8), objectMapper);
+            Future<?> parsing = executor.submit(() -> {
+                parse(reader, records);
+                return null;
+            });
+            Future<?> validating = executor.submit(() -> validate(records, rows, owner, categories, report));
+            try {
+                save(rows, ownerId, report);
+                // The validation stage goes first: if it failed, the parser may be stuck on a full queue
+                // until it is cancelled below.
+                await(validating);
+                await(parsing);
+            } finally {
+                parsing.cancel(true);
+                validating.cancel(true);
+            }
+            log.info("Imported {} of {} rows in {} ms, {} rejected", report.getRowsImported(), report.getRowsRead(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), report.getRowsRejected());
+            return report;
+        } finally {
+            imports.release();
+            if (report.getRowsImported() > 0) {
+                eventPublisher.publishEvent(new CatalogImportedEvent(report.getRowsImported()));
+            }
+        }
+    }
+
+    /**
+     * Loads the owner and detaches it, so that the validation stage can link offers to it.
+     */
+    private Customer loadOwner(Long ownerId) {
+        return transactionTemplate.execute(status -> {
+            Customer owner = customerRepository.findById(ownerId)
+                    .orElseThrow(() -> new ValidationException("Only customers can import offers"));
+            entityManager.detach(owner);
+            return owner;
+        });
+    }
+
+    /**
+     * Loads all categories by lower case name and detaches them, so that the validation stage can link books to them.
+     */
+    private Map<String, Category> loadCategories() {
+        return transactionTemplate.execute(status -> {
+            List<Category> categories = categoryRepository.findAll();
+            categories.forEach(entityManager::detach);
+            return categories.stream().collect(Collectors.toMap(
+                    category -> category.getName().toLowerCase(Locale.ROOT), Function.identity(), (first, second) -> first));
+        });
+    }
+
+    /**
+     * First stage: reads the records of the file.
+     */
+    private void parse(ImportRecordReader reader, BlockingQueue<ImportRecord> records) throws IOException, InterruptedException {
+        try (reader) {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                records.put(record);
+            }
+        } catch (InterruptedException e) {
+            // Keep the flag, so that a cancelled stage doesn't block again on the end marker.
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            records.put(END_OF_RECORDS);
+        }
+    }
+
+    /**
+     * Second stage: checks every record by creating its entities against detached copies of the owner and
+     * categories, and stores the images of the valid ones.
+     */
+    private Void validate(BlockingQueue<ImportRecord> records, BlockingQueue<ImportRow> rows, Customer owner,
+                          Map<String, Category> categories, CatalogImportReport report) throws InterruptedException {
+        Map<Path, ImportedImage> importedImages = new LinkedHashMap<>(CACHED_IMAGES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, ImportedImage> eldest) {
+                return size() > CACHED_IMAGES;
+            }
+        };
+        try {
+            for (ImportRecord record = records.take(); record != END_OF_RECORDS; record = records.take()) {
+                report.rowRead();
+                try {
+                    rows.put(validate(record, owner, categories, importedImages));
+                } catch (ValidationException | ConstraintViolationException e) {
+                    report.rowRejected(record.getLine(), e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            rows.put(END_OF_ROWS);
+        }
+        return null;
+    }
+
+    private ImportRow validate(ImportRecord record, Customer owner, Map<String, Category> categories,
+                               Map<Path, ImportedImage> importedImages) {
+        if (record.getError().isPresent()) {
+            throw new ValidationException(record.getError().get());
+        }
+        Set<Category> bookCategories = new HashSet<>();
+        for (String name : OfferRecordMapper.categoryNames(record)) {
+            Category category = categories.get(name.toLowerCase(Locale.ROOT));
+            if (category == null) {
+                throw new ValidationException("categories: unknown category '" + name + "'");
+            }
+            bookCategories.add(category);
+        }
+        List<ImportedImage> images = new ArrayList<>();
+        for (String path : OfferRecordMapper.imagePaths(record)) {
+            images.add(importImage(path, importedImages));
+        }
+        Offer offer = OfferRecordMapper.toOffer(record, bookCategories, images, owner);
+        validateEntities(offer);
+        return new ImportRow(record, images);
+    }
+
+    /**
+     * Validates the entities created for a row using the Validator.
+     *
+     * @param offer the offer, linked to its book, images, and contact info.
+     * @throws ValidationException if any validation constraints are violated.
+     */
+    private void validateEntities(Offer offer) {
+        Stream<Set<? extends ConstraintViolation<?>>> violations = Stream.concat(
+                Stream.of(validator.validate(offer), validator.validate(offer.getBook()), validator.validate(offer.getContactInfo())),
+                offer.getBook().getImages().stream().map(validator::validate));
+        String errorMessage = violations
+                .flatMap(Set::stream)
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        if (!errorMessage.isEmpty()) {
+            throw new ValidationException(errorMessage);
+        }
+    }
+
+    /**
+     * Copies an image referenced by a record into the image store.
+     * Paths are resolved against the import image directory and may not point outside of it.
+     */
+    private ImportedImage importImage(String path, Map<Path, ImportedImage> importedImages) {
+        Path file;
+        try {
+            file = imageDirectory.resolve(path).normalize();
+        } catch (InvalidPathException e) {
+            throw new ValidationException("images: '" + path + "' is not a valid path");
+        }
+        if (!file.startsWith(imageDirectory)) {
+            throw new ValidationException("images: '" + path + "' is outside the import image directory");
+        }
+        ImportedImage imported = importedImages.get(file);
+        if (imported != null) {
+            return imported;
+        }
+        ImageFormat format = imageFormat(path);
+        try (InputStream content = Files.newInputStream(file)) {
+            StoredBlob blob = imageStore.store(content, uploadBudget.getMaxFileSizeInBytes());
+            imported = new ImportedImage(blob, format);
+        } catch (NoSuchFileException e) {
+            throw new ValidationException("images: '" + path + "' doesn't exist");
+        } catch (IOException e) {
+            throw new ValidationException("images: '" + path + "' can't be read");
+        }
+        importedImages.put(file, imported);
+        return imported;
+    }
+
+    private static ImageFormat imageFormat(String path) {
+        String name = path.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".png")) {
+            return ImageFormat.PNG;
+        }
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            return ImageFormat.JPEG;
+        }
+        throw new ValidationException("images: '" + path + "' is neither a PNG nor a JPEG image");
+    }
+
+    /**
+     * Third stage: saves the valid rows in batches.
+     */
+    private void save(BlockingQueue<ImportRow> rows, Long ownerId, CatalogImportReport report) {
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        try {
+            for (ImportRow row = rows.take(); row != END_OF_ROWS; row = rows.take()) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    save(batch, ownerId, report);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog import was interrupted", e);
+        }
+        save(batch, ownerId, report);
+    }
+
+    /**
+     * Saves a batch of rows in one transaction, or row by row if the batch fails.
+     */
+    private void save(List<ImportRow> batch, Long ownerId, CatalogImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(batch, ownerId));
+            report.rowsImported(batch.size());
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            if (batch.size() == 1) {
+                report.rowRejected(batch.get(0).getLine(), rejectionMessage(e));
+            } else {
+                batch.forEach(row -> save(List.of(row), ownerId, report));
+            }
+        }
+    }
+
+    /**
+     * Creates the entities of the rows against the managed owner and categories, then flushes and clears
+     * the persistence context, so that it never holds more than one batch.
+     */
+    private void persist(List<ImportRow> batch, Long ownerId) {
+        Customer owner = entityManager.find(Customer.class, ownerId);
+        Map<String, Category> categories = categoryRepository.findAll().stream().collect(Collectors.toMap(
+                category -> category.getName().toLowerCase(Locale.ROOT), Function.identity(), (first, second) -> first));
+        for (ImportRow row : batch) {
+            Set<Category> bookCategories = OfferRecordMapper.categoryNames(row.getRecord()).stream()
+                    .map(name -> categories.get(name.toLowerCase(Locale.ROOT)))
+                    .collect(Collectors.toSet());
+            if (bookCategories.contains(null)) {
+                throw new ValidationException("categories: a category was deleted during the import");
+            }
+            entityManager.persist(OfferRecordMapper.toOffer(row.getRecord(), bookCategories, row.getImages(), owner));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static String rejectionMessage(RuntimeException e) {
+        if (e instanceof ValidationException || e instanceof ConstraintViolationException) {
+            return e.getMessage();
+        }
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message == null ? "Saving the row failed" : message.lines().findFirst().orElse(message);
+    }
+
+    /**
+     * Waits for a stage to finish and rethrows its failure.
+     */
+    private static void await(Future<?> stage) throws IOException {
+        try {
+            stage.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog import was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Catalog import failed", e.getCause());
+        }
+    }
+}
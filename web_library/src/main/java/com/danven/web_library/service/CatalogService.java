@@ -0,0 +1,15 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.dto.KeysetPage;
+
+import java.util.List;
+
+public interface CatalogService {
+
+    KeysetPage<CatalogCard> getPublishedCards(Long after, Integer size);
+
+    KeysetPage<CatalogCard> searchPublishedCards(String query, Long categoryId, Long after, Integer size);
+
+    List<CatalogCard> getCardsByOwner(Long ownerId);
+}
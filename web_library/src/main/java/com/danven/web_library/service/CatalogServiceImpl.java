@@ -0,0 +1,102 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.catalog.CatalogCardLoader;
+import com.danven.web_library.catalog.CatalogSnapshot;
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.dto.KeysetPage;
+import com.danven.web_library.search.CatalogSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service implementation for reading catalog cards.
+ * Published cards are served from the in-memory catalog snapshot and searches are answered by the
+ * in-memory search index, so browsing the published catalog doesn't touch the database.
+ * Pages are addressed by keyset (the last book ID of the previous page) rather than by offset.
+ */
+@Service
+public class CatalogServiceImpl implements CatalogService {
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final CatalogCardLoader catalogCardLoader;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    /**
+     * Constructs a new CatalogServiceImpl.
+     *
+     * @param catalogSnapshot    the in-memory copy of the published catalog.
+     * @param catalogSearchIndex the index answering catalog searches.
+     * @param catalogCardLoader  the loader reading catalog cards from the database.
+     * @param defaultPageSize    the page size used when none is requested.
+     * @param maxPageSize        the largest page size a client may request.
+     */
+    public CatalogServiceImpl(CatalogSnapshot catalogSnapshot, CatalogSearchIndex catalogSearchIndex,
+                              CatalogCardLoader catalogCardLoader,
+                              @Value("${web-library.catalog.default-page-size:12}") int defaultPageSize,
+                              @Value("${web-library.catalog.max-page-size:48}") int maxPageSize) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.catalogSearchIndex = catalogSearchIndex;
+        this.catalogCardLoader = catalogCardLoader;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Retrieves a page of published catalog cards, newest first.
+     *
+     * @param after the cursor returned with the previous page, or null for the first page.
+     * @param size  the requested page size, or null for the default; capped at the maximum page size.
+     * @return the page of cards with the cursor of the next page.
+     */
+    @Override
+    public KeysetPage<CatalogCard> getPublishedCards(Long after, Integer size) {
+        return catalogSnapshot.current().page(after, pageSize(size));
+    }
+
+    /**
+     * Searches the published catalog and retrieves one page of the results, best match first.
+     * Without search terms and category, this is the same as {@link #getPublishedCards(Long, Integer)}.
+     * The cursor is the ID of the last book of the previous page; the next page starts right after it
+     * in the current ranking. A cursor that is no longer part of the results ends them.
+     *
+     * @param query      the search query, may be null.
+     * @param categoryId the category the books must belong to, or null for any category.
+     * @param after      the cursor returned with the previous page, or null for the first page.
+     * @param size       the requested page size, or null for the default; capped at the maximum page size.
+     * @return the page of cards with the cursor of the next page.
+     */
+    @Override
+    public KeysetPage<CatalogCard> searchPublishedCards(String query, Long categoryId, Long after, Integer size) {
+        if (categoryId == null && !CatalogSearchIndex.hasTerms(query)) {
+            return getPublishedCards(after, size);
+        }
+        KeysetPage<Long> ids = catalogSearchIndex.search(query, categoryId, after, pageSize(size));
+        return new KeysetPage<>(catalogSnapshot.current().cards(ids.getItems()), ids.getNextCursor());
+    }
+
+    /**
+     * Retrieves the catalog cards of all books offered by a specific owner, newest first.
+     * Unlike the published catalog, these are read from the database, since they include unpublished offers.
+     *
+     * @param ownerId the ID of the owner.
+     * @return the owner's cards.
+     */
+    @Override
+    public List<CatalogCard> getCardsByOwner(Long ownerId) {
+        return catalogCardLoader.loadByOwner(ownerId);
+    }
+
+    /**
+     * Resolves the requested page size.
+     *
+     * @param size the requested page size, or null for the default.
+     * @return the page size, between 1 and the maximum page size.
+     */
+    private int pageSize(Integer size) {
+        return size == null || size < 1 ? defaultPageSize : Math.min(size, maxPageSize);
+    }
+}
@@ -5,4 +5,6 @@ import com.danven.web_library.domain.user.User;
 public interface CustomerService {
 
     User getUserByEmail(String email);
+
+    User getUserById(Long id);
 }
@@ -31,13 +31,30 @@ public class CustomerServiceImpl implements CustomerService{
 
     /**
      * Retrieves a User entity by their email.
+     * The email is resolved through the natural ID cache, so repeated lookups of the same user
+     * don't reach the database.
      *
      * @param email The email of the user to retrieve.
      * @return The User entity associated with the given email.
      * @throws UsernameNotFoundException If no user is found with the provided email.
      */
+    @Override
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return userRepository.loadByEmail(email).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+
+    /**
+     * Retrieves a User entity by their ID, from the second-level cache when it is cached.
+     *
+     * @param id The ID of the user to retrieve.
+     * @return The User entity with the given ID.
+     * @throws UsernameNotFoundException If no user exists with the given ID.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public User getUserById(Long id) {
+        return userRepository.findById(id).orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
 
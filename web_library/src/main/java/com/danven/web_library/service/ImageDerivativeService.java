@@ -0,0 +1,8 @@
+package com.danven.web_library.service;
+
+public interface ImageDerivativeService {
+
+    void generateDerivatives(Long bookId);
+
+    void generateMissingDerivatives();
+}
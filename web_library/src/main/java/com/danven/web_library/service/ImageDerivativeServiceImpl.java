@@ -0,0 +1,177 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.domain.book.ImageFormat;
+import com.danven.web_library.domain.book.ImageSize;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.event.CatalogImportedEvent;
+import com.danven.web_library.repository.ImageRepository;
+import com.danven.web_library.repository.ImageRepository.PendingOriginal;
+import com.danven.web_library.storage.ImageStore;
+import com.danven.web_library.util.ImageResizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Service that generates the scaled derivatives of uploaded images in the background.
+ * Every original is decoded once and scaled to each derivative size; the derivatives are stored
+ * in the image store next to the original and recorded on all images referencing that original.
+ */
+@Service
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeServiceImpl.class);
+
+    private final ImageRepository imageRepository;
+    private final ImageStore imageStore;
+    private final TaskExecutor executor;
+    private final long maxPixels;
+
+    /**
+     * Constructs a new ImageDerivativeServiceImpl.
+     *
+     * @param imageRepository the repository for Image entities.
+     * @param imageStore      the store holding the image content.
+     * @param executor        the bounded executor running the generation.
+     * @param maxPixels       the largest number of pixels of an original that is decoded.
+     */
+    public ImageDerivativeServiceImpl(ImageRepository imageRepository, ImageStore imageStore,
+                                      @Qualifier("imageDerivativeExecutor") TaskExecutor executor,
+                                      @Value("${web-library.images.max-pixels:25000000}") long maxPixels) {
+        this.imageRepository = imageRepository;
+        this.imageStore = imageStore;
+        this.executor = executor;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Schedules derivative generation for the images of a book.
+     * If the executor is saturated, the generation is postponed to the next startup and the images are logged.
+     *
+     * @param bookId the ID of the book.
+     */
+    @Override
+    public void generateDerivatives(Long bookId) {
+        try {
+            executor.execute(() -> generate(imageRepository.findPendingOriginalsByBookId(bookId)));
+        } catch (TaskRejectedException e) {
+            List<String> digests = imageRepository.findPendingOriginalsByBookId(bookId).stream()
+                    .map(PendingOriginal::getDigest)
+                    .collect(Collectors.toList());
+            log.warn("Derivative queue is full, derivatives of images {} of book {} are postponed to the next startup",
+                    digests, bookId);
+        }
+    }
+
+    /**
+     * Schedules derivative generation for every image that doesn't have derivatives yet.
+     * If the executor is saturated, the generation is postponed to the next startup.
+     */
+    @Override
+    public void generateMissingDerivatives() {
+        try {
+            executor.execute(() -> generate(imageRepository.findPendingOriginals()));
+        } catch (TaskRejectedException e) {
+            log.warn("Derivative queue is full, missing derivatives are postponed to the next startup");
+        }
+    }
+
+    /**
+     * Schedules derivative generation once an update that replaced images has been committed.
+     *
+     * @param event the book update event.
+     */
+    @TransactionalEventListener
+    public void onBookUpdated(BookUpdatedEvent event) {
+        if (event.isImagesChanged()) {
+            generateDerivatives(event.getBookId());
+        }
+    }
+
+    /**
+     * Schedules derivative generation for the images added by an import.
+     *
+     * @param event the import event.
+     */
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        generateMissingDerivatives();
+    }
+
+    /**
+     * Catches up on images stored while the application wasn't generating derivatives,
+     * including the seed data.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        generateMissingDerivatives();
+    }
+
+    private void generate(List<PendingOriginal> originals) {
+        for (PendingOriginal original : originals) {
+            try {
+                generate(original.getDigest(), original.getFormat());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Derivatives for image {} couldn't be generated", original.getDigest(), e);
+            }
+        }
+    }
+
+    /**
+     * Decodes an original once and stores one derivative per scaled size.
+     *
+     * @param digest the digest of the original.
+     * @param format the format of the original.
+     * @throws IOException if the original can't be read, has too many pixels, or a derivative can't be stored.
+     */
+    private void generate(String digest, ImageFormat format) throws IOException {
+        Optional<Resource> content = imageStore.load(digest);
+        if (content.isEmpty()) {
+            log.warn("Original image {} is missing from the image store", digest);
+            return;
+        }
+        long originalSize = content.get().contentLength();
+        BufferedImage original;
+        try (InputStream in = content.get().getInputStream()) {
+            original = ImageResizer.decode(in, maxPixels);
+        }
+        String cardDigest = storeDerivative(digest, originalSize, original, format, ImageSize.CARD);
+        String detailDigest = storeDerivative(digest, originalSize, original, format, ImageSize.DETAIL);
+        imageRepository.updateDerivatives(digest, cardDigest, detailDigest);
+    }
+
+    /**
+     * Stores the derivative of an original for the given size.
+     * The original itself is used when it is already within the size or when the re-encoded
+     * derivative wouldn't be smaller than it.
+     *
+     * @return the digest of the derivative.
+     */
+    private String storeDerivative(String digest, long originalSize, BufferedImage original, ImageFormat format,
+                                   ImageSize size) throws IOException {
+        if (original.getWidth() <= size.getMaxWidth()) {
+            return digest;
+        }
+        byte[] encoded = ImageResizer.encode(ImageResizer.scaleToWidth(original, size.getMaxWidth(), format), format);
+        if (encoded.length >= originalSize) {
+            return digest;
+        }
+        return imageStore.store(new ByteArrayInputStream(encoded)).getDigest();
+    }
+}
@@ -0,0 +1,13 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.domain.book.Image;
+import org.springframework.core.io.Resource;
+
+import java.util.Optional;
+
+public interface ImageService {
+
+    Optional<Image> getImage(Long id);
+
+    Optional<Resource> getImageContent(String digest);
+}
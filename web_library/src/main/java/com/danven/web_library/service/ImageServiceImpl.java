@@ -0,0 +1,54 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.domain.book.Image;
+import com.danven.web_library.repository.ImageRepository;
+import com.danven.web_library.storage.ImageStore;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Service implementation for reading stored book images.
+ */
+@Service
+public class ImageServiceImpl implements ImageService {
+
+    private final ImageRepository imageRepository;
+    private final ImageStore imageStore;
+
+    /**
+     * Constructs a new ImageServiceImpl.
+     *
+     * @param imageRepository the repository to use for accessing image metadata.
+     * @param imageStore      the store holding the image content.
+     */
+    public ImageServiceImpl(ImageRepository imageRepository, ImageStore imageStore) {
+        this.imageRepository = imageRepository;
+        this.imageStore = imageStore;
+    }
+
+    /**
+     * Retrieves the metadata of an image by its ID.
+     *
+     * @param id the ID of the image.
+     * @return the image, or an empty Optional if no image exists with the given ID.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Image> getImage(Long id) {
+        return imageRepository.findById(id);
+    }
+
+    /**
+     * Retrieves stored image content, either an original or a derivative.
+     *
+     * @param digest the digest of the content.
+     * @return the content, or an empty Optional if the content is missing from the store.
+     */
+    @Override
+    public Optional<Resource> getImageContent(String digest) {
+        return imageStore.load(digest);
+    }
+}
@@ -0,0 +1,125 @@
+package com.danven.web_library.session;
+
+import com.danven.web_library.config.AuthenticatedUser;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes session attributes for a session store.
+ * The security context of a logged-in user is written in a compact form holding only the ID, username,
+ * display name and roles of the user, a few dozen bytes instead of the kilobyte Java serialization takes for it;
+ * the authentication details, such as the remote address of the login request, aren't kept.
+ * Every other attribute falls back to Java serialization.
+ * <p>
+ * Compact values start with a marker byte, while Java serialization streams always start with 0xACED,
+ * so both forms can be told apart when reading.
+ */
+public class SessionAttributeCodec {
+
+    private static final byte COMPACT_SECURITY_CONTEXT = 1;
+
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer = new DeserializingConverter();
+
+    /**
+     * Serializes a session attribute.
+     *
+     * @param value the attribute value.
+     * @return the serialized value.
+     */
+    public byte[] encode(Object value) {
+        if (value instanceof SecurityContext && isCompact(((SecurityContext) value).getAuthentication())) {
+            return encodeSecurityContext((SecurityContext) value);
+        }
+        return serializer.convert(value);
+    }
+
+    /**
+     * Deserializes a session attribute written by {@link #encode(Object)}.
+     *
+     * @param bytes the serialized value.
+     * @return the attribute value.
+     */
+    public Object decode(byte[] bytes) {
+        if (bytes.length > 0 && bytes[0] == COMPACT_SECURITY_CONTEXT) {
+            return decodeSecurityContext(bytes);
+        }
+        return deserializer.convert(bytes);
+    }
+
+    /**
+     * Checks whether an authentication can be written in the compact form without losing what the
+     * application reads from it.
+     *
+     * @param authentication the authentication, may be null.
+     * @return true for an authenticated username and password login.
+     */
+    private boolean isCompact(Authentication authentication) {
+        return authentication instanceof UsernamePasswordAuthenticationToken
+                && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof AuthenticatedUser;
+    }
+
+    /**
+     * Writes the logged-in user of a security context.
+     *
+     * @param context the security context.
+     * @return the compact form.
+     */
+    private byte[] encodeSecurityContext(SecurityContext context) {
+        AuthenticatedUser user = (AuthenticatedUser) context.getAuthentication().getPrincipal();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(COMPACT_SECURITY_CONTEXT);
+            out.writeLong(user.getId());
+            out.writeUTF(user.getUsername());
+            out.writeUTF(user.getDisplayName() == null ? "" : user.getDisplayName());
+            out.writeShort(user.getAuthorities().size());
+            for (GrantedAuthority authority : user.getAuthorities()) {
+                out.writeUTF(authority.getAuthority());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Rebuilds a security context from its compact form.
+     *
+     * @param bytes the compact form.
+     * @return the security context with an authenticated token.
+     */
+    private SecurityContext decodeSecurityContext(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            in.readByte();
+            long id = in.readLong();
+            String username = in.readUTF();
+            String displayName = in.readUTF();
+            int authorityCount = in.readUnsignedShort();
+            List<GrantedAuthority> authorities = new ArrayList<>(authorityCount);
+            for (int i = 0; i < authorityCount; i++) {
+                authorities.add(new SimpleGrantedAuthority(in.readUTF()));
+            }
+            AuthenticatedUser principal = new AuthenticatedUser(id, username, null, displayName, authorities);
+            return new SecurityContextImpl(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
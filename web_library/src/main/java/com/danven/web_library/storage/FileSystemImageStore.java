@@ -0,0 +1,120 @@
+package com.danven.web_library.storage;
+
+import com.danven.web_library.exceptions.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Image store keeping every blob as a file below a root directory.
+ * Blobs are sharded by the first two byte pairs of their digest ({@code ab/cd/abcd...}) to keep
+ * directories small. Content is first written to a temporary file inside the root and then
+ * renamed into place, so a blob is either absent or complete.
+ */
+@Component
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path root;
+
+    private final Path temporaryDirectory;
+
+    /**
+     * Constructs a new FileSystemImageStore.
+     *
+     * @param root the directory below which blobs are stored.
+     */
+    public FileSystemImageStore(@Value("${web-library.image-store.root:data/images}") Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.temporaryDirectory = this.root.resolve("tmp");
+        try {
+            Files.createDirectories(temporaryDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Image store root can't be created: " + this.root, e);
+        }
+    }
+
+    @Override
+    public StoredBlob store(InputStream content, long maxBytes) throws IOException {
+        MessageDigest messageDigest = newMessageDigest();
+        Path temporaryFile = Files.createTempFile(temporaryDirectory, "blob-", ".part");
+        try {
+            long size = copy(new DigestInputStream(content, messageDigest), temporaryFile, maxBytes);
+            String digest = HexFormat.of().formatHex(messageDigest.digest());
+            Path target = resolve(digest);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredBlob(digest, size);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    @Override
+    public Optional<Resource> load(String digest) {
+        if (digest == null || !DIGEST_PATTERN.matcher(digest).matches()) {
+            return Optional.empty();
+        }
+        Path path = resolve(digest);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    /**
+     * Copies a stream into a file through a fixed-size buffer, failing as soon as the limit is exceeded.
+     *
+     * @return the number of copied bytes.
+     */
+    private static long copy(InputStream in, Path target, long maxBytes) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new ValidationException("Image can't be larger than " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Resolves the sharded location of a blob.
+     *
+     * @param digest the hex encoded digest of the blob.
+     * @return the path of the blob file.
+     */
+    private Path resolve(String digest) {
+        return root.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
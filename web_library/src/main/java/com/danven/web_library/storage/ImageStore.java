@@ -0,0 +1,47 @@
+package com.danven.web_library.storage;
+
+import com.danven.web_library.exceptions.ValidationException;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for image bytes.
+ * Content is keyed by its SHA-256 digest, so storing identical bytes twice yields the same blob.
+ */
+public interface ImageStore {
+
+    /**
+     * Stores the content of the given stream. The stream is consumed but not closed.
+     *
+     * @param content the content to store.
+     * @return the digest and size of the stored content.
+     * @throws IOException if the content can't be read or written.
+     */
+    default StoredBlob store(InputStream content) throws IOException {
+        return store(content, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stores the content of the given stream, rejecting it once it grows beyond the given size.
+     * The size is checked while copying, so an oversized stream is never fully read.
+     * The stream is consumed but not closed.
+     *
+     * @param content  the content to store.
+     * @param maxBytes the maximum accepted size of the content.
+     * @return the digest and size of the stored content.
+     * @throws IOException         if the content can't be read or written.
+     * @throws ValidationException if the content is larger than the maximum size.
+     */
+    StoredBlob store(InputStream content, long maxBytes) throws IOException;
+
+    /**
+     * Loads the content stored under the given digest.
+     *
+     * @param digest the hex encoded SHA-256 digest of the content.
+     * @return the content, or an empty Optional if nothing is stored under the digest.
+     */
+    Optional<Resource> load(String digest);
+}
@@ -0,0 +1,53 @@
+package com.danven.web_library.storage;
+
+import java.util.Objects;
+
+/**
+ * Describes content written to a blob store: the SHA-256 digest that addresses it and its size.
+ */
+public final class StoredBlob {
+
+    private final String digest;
+
+    private final long sizeInBytes;
+
+    /**
+     * Constructs a new StoredBlob.
+     *
+     * @param digest      the hex encoded SHA-256 digest of the content.
+     * @param sizeInBytes the size of the content in bytes.
+     */
+    public StoredBlob(String digest, long sizeInBytes) {
+        this.digest = digest;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StoredBlob)) return false;
+        StoredBlob that = (StoredBlob) o;
+        return sizeInBytes == that.sizeInBytes && Objects.equals(digest, that.digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(digest, sizeInBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "StoredBlob{" +
+                "digest='" + digest + '\'' +
+                ", sizeInBytes=" + sizeInBytes +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+package com.danven.web_library.storage;
+
+import com.danven.web_library.exceptions.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global limit on the number of upload bytes processed at the same time across all requests.
+ * An upload reserves its size before it is copied into the image store and releases it afterwards;
+ * uploads that can't get a reservation within the wait time are rejected instead of queueing up.
+ */
+@Component
+public class UploadBudget {
+
+    private static final int KILOBYTE = 1024;
+
+    private final Semaphore kilobytes;
+
+    private final int capacityInKilobytes;
+
+    private final long maxFileSizeInBytes;
+
+    private final long waitMillis;
+
+    /**
+     * Constructs a new UploadBudget.
+     *
+     * @param capacity    the maximum number of upload bytes in flight across all requests.
+     * @param maxFileSize the maximum size of a single uploaded file.
+     * @param waitMillis  how long an upload may wait for a reservation.
+     */
+    public UploadBudget(@Value("${web-library.uploads.max-in-flight-size:64MB}") DataSize capacity,
+                        @Value("${spring.servlet.multipart.max-file-size:5MB}") DataSize maxFileSize,
+                        @Value("${web-library.uploads.wait-millis:2000}") long waitMillis) {
+        this.capacityInKilobytes = (int) Math.min(Integer.MAX_VALUE, capacity.toKilobytes());
+        this.kilobytes = new Semaphore(capacityInKilobytes, true);
+        this.maxFileSizeInBytes = maxFileSize.toBytes();
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Gets the maximum accepted size of a single uploaded file.
+     *
+     * @return the maximum file size in bytes.
+     */
+    public long getMaxFileSizeInBytes() {
+        return maxFileSizeInBytes;
+    }
+
+    /**
+     * Runs an upload while holding a reservation for its declared size.
+     *
+     * @param declaredBytes the size declared by the client for the upload.
+     * @param upload        the work copying the upload.
+     * @return the result of the upload.
+     * @throws IOException         if the upload fails to read or write the content.
+     * @throws ValidationException if the upload is too large or the budget is exhausted.
+     */
+    public <T> T reserve(long declaredBytes, Upload<T> upload) throws IOException {
+        if (declaredBytes > maxFileSizeInBytes) {
+            throw new ValidationException("Image can't be larger than " + maxFileSizeInBytes + " bytes");
+        }
+        int permits = (int) Math.min(capacityInKilobytes, Math.max(1, (declaredBytes + KILOBYTE - 1) / KILOBYTE));
+        if (!tryAcquire(permits)) {
+            throw new ValidationException("Too many uploads in progress, please try again later");
+        }
+        try {
+            return upload.run();
+        } finally {
+            kilobytes.release(permits);
+        }
+    }
+
+    private boolean tryAcquire(int permits) {
+        try {
+            return kilobytes.tryAcquire(permits, waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Work performed under an upload reservation.
+     *
+     * @param <T> the result type.
+     */
+    @FunctionalInterface
+    public interface Upload<T> {
+
+        T run() throws IOException;
+    }
+}
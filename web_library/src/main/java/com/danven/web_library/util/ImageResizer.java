@@ -0,0 +1,98 @@
+package com.danven.web_library.util;
+
+import com.danven.web_library.domain.book.ImageFormat;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Utility class for decoding, scaling and encoding images.
+ */
+public class ImageResizer {
+
+    private ImageResizer() {
+    }
+
+    /**
+     * Decodes an image from the given stream.
+     * The dimensions are read from the image header first, so an image with more pixels than allowed is
+     * rejected before its pixel data is allocated.
+     *
+     * @param content   the encoded image.
+     * @param maxPixels the largest number of pixels the image may have.
+     * @return the decoded image.
+     * @throws IOException if the content isn't an image ImageIO can decode or it has too many pixels.
+     */
+    public static BufferedImage decode(InputStream content, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Image content can't be decoded");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("Image of " + reader.getWidth(0) + "x" + reader.getHeight(0)
+                            + " pixels exceeds the limit of " + maxPixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales an image down to the given maximum width, keeping its aspect ratio.
+     * Images already narrower than the maximum width are returned unchanged.
+     *
+     * @param image    the decoded image.
+     * @param maxWidth the maximum width in pixels.
+     * @param format   the format the result will be encoded in.
+     * @return the scaled image.
+     */
+    public static BufferedImage scaleToWidth(BufferedImage image, int maxWidth, ImageFormat format) {
+        if (image.getWidth() <= maxWidth) {
+            return image;
+        }
+        int height = Math.max(1, Math.round(image.getHeight() * (maxWidth / (float) image.getWidth())));
+        int type = format.supportsTransparency() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(maxWidth, height, type);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, maxWidth, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Encodes an image in the given format.
+     *
+     * @param image  the image to encode.
+     * @param format the target format.
+     * @return the encoded bytes.
+     * @throws IOException if no encoder is available for the format.
+     */
+    public static byte[] encode(BufferedImage image, ImageFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format.getEncoderName(), out)) {
+            throw new IOException("No encoder available for " + format);
+        }
+        return out.toByteArray();
+    }
+}
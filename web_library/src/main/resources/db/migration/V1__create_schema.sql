@@ -0,0 +1,147 @@
+-- Schema of the web library, matching the JPA mappings of the domain package.
+
+CREATE SEQUENCE hibernate_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE users (
+    user_id              BIGINT       NOT NULL,
+    email                VARCHAR(255) NOT NULL,
+    enabled              BOOLEAN,
+    name                 VARCHAR(255) NOT NULL,
+    password             VARCHAR(255) NOT NULL,
+    surname              VARCHAR(255),
+    time_of_registration TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (user_id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE administrator (
+    user_id    BIGINT       NOT NULL,
+    unique_key VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_administrator PRIMARY KEY (user_id),
+    CONSTRAINT uk_administrator_unique_key UNIQUE (unique_key),
+    CONSTRAINT fk_administrator_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE customer (
+    user_id          BIGINT       NOT NULL,
+    city             VARCHAR(255),
+    country          VARCHAR(255) NOT NULL,
+    house_number     VARCHAR(255),
+    postal_code      VARCHAR(255) NOT NULL,
+    street           VARCHAR(255),
+    date_of_birth    DATE         NOT NULL,
+    telephone_number VARCHAR(255),
+    CONSTRAINT pk_customer PRIMARY KEY (user_id),
+    CONSTRAINT fk_customer_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE category (
+    category_id BIGINT       NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_category PRIMARY KEY (category_id),
+    CONSTRAINT uk_category_name UNIQUE (name)
+);
+
+CREATE TABLE offer (
+    offer_id         BIGINT       NOT NULL,
+    discount         DOUBLE,
+    end_date         TIMESTAMP,
+    number_of_copies INTEGER      NOT NULL CHECK (number_of_copies >= 0),
+    offer_type       VARCHAR(255) NOT NULL,
+    price            DOUBLE       NOT NULL CHECK (price >= 0),
+    publishing_state VARCHAR(255),
+    publishing_time  TIMESTAMP,
+    owner_id         BIGINT       NOT NULL,
+    CONSTRAINT pk_offer PRIMARY KEY (offer_id),
+    CONSTRAINT fk_offer_owner FOREIGN KEY (owner_id) REFERENCES customer (user_id)
+);
+
+CREATE TABLE contact_info (
+    contact_info_id   BIGINT       NOT NULL,
+    email             VARCHAR(255) NOT NULL,
+    social_media_link VARCHAR(255),
+    telephone_number  VARCHAR(255),
+    offer_id          BIGINT       NOT NULL,
+    CONSTRAINT pk_contact_info PRIMARY KEY (contact_info_id),
+    CONSTRAINT fk_contact_info_offer FOREIGN KEY (offer_id) REFERENCES offer (offer_id)
+);
+
+CREATE TABLE book (
+    book_id            BIGINT       NOT NULL,
+    author             VARCHAR(255) NOT NULL,
+    description        VARCHAR(255) NOT NULL,
+    isbn               VARCHAR(255) NOT NULL,
+    name               VARCHAR(255) NOT NULL,
+    year_of_publishing INTEGER      NOT NULL CHECK (year_of_publishing >= 1),
+    offer_id           BIGINT       NOT NULL,
+    CONSTRAINT pk_book PRIMARY KEY (book_id),
+    CONSTRAINT uk_book_isbn UNIQUE (isbn),
+    CONSTRAINT uk_book_offer UNIQUE (offer_id),
+    CONSTRAINT fk_book_offer FOREIGN KEY (offer_id) REFERENCES offer (offer_id)
+);
+
+CREATE TABLE paper_book (
+    book_id         BIGINT  NOT NULL,
+    number_of_pages INTEGER NOT NULL CHECK (number_of_pages >= 1),
+    CONSTRAINT pk_paper_book PRIMARY KEY (book_id),
+    CONSTRAINT fk_paper_book_book FOREIGN KEY (book_id) REFERENCES book (book_id)
+);
+
+CREATE TABLE disk_book (
+    book_id           BIGINT       NOT NULL,
+    disk_format       VARCHAR(255) NOT NULL,
+    duration_in_hours DOUBLE       NOT NULL CHECK (duration_in_hours >= 0),
+    CONSTRAINT pk_disk_book PRIMARY KEY (book_id),
+    CONSTRAINT fk_disk_book_book FOREIGN KEY (book_id) REFERENCES book (book_id)
+);
+
+CREATE TABLE paper_book_with_disk (
+    book_id           BIGINT       NOT NULL,
+    disk_format       VARCHAR(255) NOT NULL,
+    disk_is_glued     BOOLEAN,
+    duration_in_hours DOUBLE       NOT NULL CHECK (duration_in_hours >= 0),
+    CONSTRAINT pk_paper_book_with_disk PRIMARY KEY (book_id),
+    CONSTRAINT fk_paper_book_with_disk_paper_book FOREIGN KEY (book_id) REFERENCES paper_book (book_id)
+);
+
+CREATE TABLE book_category (
+    book_id     BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    CONSTRAINT pk_book_category PRIMARY KEY (book_id, category_id),
+    CONSTRAINT fk_book_category_book FOREIGN KEY (book_id) REFERENCES book (book_id),
+    CONSTRAINT fk_book_category_category FOREIGN KEY (category_id) REFERENCES category (category_id)
+);
+
+CREATE TABLE image (
+    image_id         BIGINT       NOT NULL,
+    card_digest      VARCHAR(64),
+    detail_digest    VARCHAR(64),
+    digest           VARCHAR(64)  NOT NULL,
+    image_format     VARCHAR(255) NOT NULL,
+    is_preview       BOOLEAN,
+    display_position INTEGER      NOT NULL CHECK (display_position >= 0),
+    size_in_bytes    BIGINT       NOT NULL CHECK (size_in_bytes >= 1),
+    book_id          BIGINT       NOT NULL,
+    CONSTRAINT pk_image PRIMARY KEY (image_id),
+    CONSTRAINT fk_image_book FOREIGN KEY (book_id) REFERENCES book (book_id)
+);
+
+CREATE TABLE favourite_offer (
+    favourite_offer_id BIGINT       NOT NULL,
+    description        VARCHAR(255) NOT NULL,
+    customer_id        BIGINT       NOT NULL,
+    offer_id           BIGINT       NOT NULL,
+    CONSTRAINT pk_favourite_offer PRIMARY KEY (favourite_offer_id),
+    CONSTRAINT fk_favourite_offer_customer FOREIGN KEY (customer_id) REFERENCES customer (user_id),
+    CONSTRAINT fk_favourite_offer_offer FOREIGN KEY (offer_id) REFERENCES offer (offer_id)
+);
+
+CREATE TABLE report (
+    report_id   BIGINT       NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    offer_id    BIGINT       NOT NULL,
+    CONSTRAINT pk_report PRIMARY KEY (report_id),
+    CONSTRAINT fk_report_user FOREIGN KEY (user_id) REFERENCES customer (user_id),
+    CONSTRAINT fk_report_offer FOREIGN KEY (offer_id) REFERENCES offer (offer_id)
+);
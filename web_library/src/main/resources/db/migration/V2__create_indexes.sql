@@ -0,0 +1,23 @@
+-- Indexes backing the lookups of the repositories, beyond those of the primary keys and unique constraints.
+
+-- Published catalog: CatalogCardRepository.findPublishedBookIds and the search index queries.
+CREATE INDEX ix_offer_publishing_state ON offer (publishing_state, offer_id);
+
+-- Owner listings: CatalogCardRepository.findBookIdsByOwnerId.
+CREATE INDEX ix_offer_owner ON offer (owner_id);
+
+-- Loading the contact info of offers: BookAggregateRepository.
+CREATE INDEX ix_contact_info_offer ON contact_info (offer_id);
+
+-- Images of a book in display order, and derivative bookkeeping by content digest: ImageRepository.
+CREATE INDEX ix_image_book_position ON image (book_id, display_position);
+CREATE INDEX ix_image_digest ON image (digest);
+
+-- Category filter of the catalog: books of a category.
+CREATE INDEX ix_book_category_category ON book_category (category_id, book_id);
+
+-- Reports and favourites of an offer or a customer.
+CREATE INDEX ix_report_offer ON report (offer_id);
+CREATE INDEX ix_report_user ON report (user_id);
+CREATE INDEX ix_favourite_offer_offer ON favourite_offer (offer_id);
+CREATE INDEX ix_favourite_offer_customer ON favourite_offer (customer_id);
@@ -0,0 +1,28 @@
+-- One sequence per entity, stepping by the identifier allocation size (spring.jpa.properties.web_library.id.allocation_size).
+-- Each sequence continues after the highest identifier already handed out by the shared hibernate_sequence.
+
+CREATE SEQUENCE users_seq INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(user_id), 0) + 1 FROM users);
+
+CREATE SEQUENCE category_seq INCREMENT BY 50;
+ALTER SEQUENCE category_seq RESTART WITH (SELECT COALESCE(MAX(category_id), 0) + 1 FROM category);
+
+CREATE SEQUENCE offer_seq INCREMENT BY 50;
+ALTER SEQUENCE offer_seq RESTART WITH (SELECT COALESCE(MAX(offer_id), 0) + 1 FROM offer);
+
+CREATE SEQUENCE contact_info_seq INCREMENT BY 50;
+ALTER SEQUENCE contact_info_seq RESTART WITH (SELECT COALESCE(MAX(contact_info_id), 0) + 1 FROM contact_info);
+
+CREATE SEQUENCE book_seq INCREMENT BY 50;
+ALTER SEQUENCE book_seq RESTART WITH (SELECT COALESCE(MAX(book_id), 0) + 1 FROM book);
+
+CREATE SEQUENCE image_seq INCREMENT BY 50;
+ALTER SEQUENCE image_seq RESTART WITH (SELECT COALESCE(MAX(image_id), 0) + 1 FROM image);
+
+CREATE SEQUENCE favourite_offer_seq INCREMENT BY 50;
+ALTER SEQUENCE favourite_offer_seq RESTART WITH (SELECT COALESCE(MAX(favourite_offer_id), 0) + 1 FROM favourite_offer);
+
+CREATE SEQUENCE report_seq INCREMENT BY 50;
+ALTER SEQUENCE report_seq RESTART WITH (SELECT COALESCE(MAX(report_id), 0) + 1 FROM report);
+
+DROP SEQUENCE hibernate_sequence;
@@ -0,0 +1,5 @@
+-- Optimistic-locking versions of books and offers; clients derive ETags and cache keys from them.
+
+ALTER TABLE book ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE offer ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,9 @@
+-- Catalog change counter, polled by instances sharing the database to refresh their in-memory catalog.
+
+CREATE TABLE catalog_revision (
+    catalog_revision_id BIGINT NOT NULL,
+    revision            BIGINT NOT NULL,
+    CONSTRAINT pk_catalog_revision PRIMARY KEY (catalog_revision_id)
+);
+
+INSERT INTO catalog_revision (catalog_revision_id, revision) VALUES (1, 0);
@@ -0,0 +1,8 @@
+-- Log of the books behind each catalog revision, so that other instances only refresh the books that changed.
+-- A change without a book stands for the whole catalog, e.g. after an import.
+
+CREATE TABLE catalog_change (
+    revision BIGINT NOT NULL,
+    book_id  BIGINT,
+    CONSTRAINT pk_catalog_change PRIMARY KEY (revision)
+);
@@ -0,0 +1,42 @@
+package com.danven.web_library;
+
+import com.danven.web_library.repository.CategoryRepository;
+import com.danven.web_library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Boots the production profile on an empty database, so that the schema built by the Flyway migrations
+ * is validated against the entity mappings, and checks that sample data is only seeded once.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:migration-tests")
+@ActiveProfiles("prod")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class MigrationTests {
+
+    @Autowired
+    private WebLibraryApplication application;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void seedingIsSkippedWhenDataExists() throws Exception {
+        long categories = categoryRepository.count();
+        long users = userRepository.count();
+
+        application.run();
+
+        assertEquals(3, categories);
+        assertEquals(categories, categoryRepository.count());
+        assertEquals(users, userRepository.count());
+    }
+}
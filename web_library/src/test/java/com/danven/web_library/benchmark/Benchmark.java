@@ -0,0 +1,26 @@
+package com.danven.web_library.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test class as a benchmark.
+ * Benchmarks only run when asked for, e.g. with {@code mvn test -Dtest=OfferInsertBenchmark -Dbenchmark=true}.
+ * They don't log SQL, and get an application context of their own, since they fill the database far beyond
+ * the seed data. They report their results through {@link Benchmarks#report}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+public @interface Benchmark {
+}
@@ -0,0 +1,122 @@
+package com.danven.web_library.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers shared by the benchmarks: generated catalog files, heap and latency measurements, and reporting.
+ */
+public final class Benchmarks {
+
+    private static final Logger log = LoggerFactory.getLogger(Benchmarks.class);
+
+    private static final String CSV_HEADER = "type,name,yearOfPublishing,description,author,isbn,categories,numberOfPages,"
+            + "price,numberOfCopies,offerTypes,publishingTime,email,images\n";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Logs a result, formatted with {@link String#format} in the root locale.
+     *
+     * @param format the format of the result.
+     * @param args   the values of the result.
+     */
+    public static void report(String format, Object... args) {
+        log.info(String.format(Locale.ROOT, format, args));
+    }
+
+    /**
+     * Returns the heap still in use after a full collection.
+     *
+     * @return the retained heap in bytes.
+     */
+    public static long retainedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Formats heap sizes as a comma-separated list of megabytes.
+     *
+     * @param bytes the heap sizes in bytes.
+     * @return the sizes in megabytes.
+     */
+    public static String megabytes(List<Long> bytes) {
+        return bytes.stream().map(size -> String.valueOf(size >> 20)).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Returns the seconds elapsed since a start time.
+     *
+     * @param startNanos the start time from {@link System#nanoTime()}.
+     * @return the elapsed seconds.
+     */
+    public static double secondsSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000_000.0;
+    }
+
+    /**
+     * Returns a percentile of measured durations.
+     *
+     * @param nanos      the durations in nanoseconds.
+     * @param percentile the percentile, from 1 to 100.
+     * @return the percentile in milliseconds.
+     */
+    public static double percentileMillis(List<Long> nanos, int percentile) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        int index = Math.min(sorted.size() - 1, (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1);
+        return sorted.get(index) / 1_000_000.0;
+    }
+
+    /**
+     * Returns a CSV import file of generated paper books, generated while it is read, so that the file itself
+     * takes no memory. Every row has a book, an offer, a contact info, and two images of the static resources.
+     *
+     * @param rows       the number of rows after the header.
+     * @param isbnPrefix the prefix making the ISBNs of the file unique.
+     * @param beforeRow  called with the index of each row before it is generated.
+     * @return the file.
+     */
+    public static InputStream generatedCatalogCsv(int rows, String isbnPrefix, IntConsumer beforeRow) {
+        return new SequenceInputStream(new Enumeration<>() {
+
+            private int row = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return row < rows;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                String line;
+                if (row < 0) {
+                    line = CSV_HEADER;
+                } else {
+                    beforeRow.accept(row);
+                    line = String.format(Locale.ROOT,
+                            "PAPER_BOOK,Book %1$d,2000,Description of book %1$d,Author %2$d,%6$s-%1$d,Fantasy|Science,%3$d,"
+                                    + "%4$d.5,1,BASIC_OFFER,2024-01-01T10:00,seller%1$d@example.com,R.png|book%5$d(jpeg).jpeg%n",
+                            row, row % 100, 100 + row % 400, 10 + row % 50, 1 + row % 4, isbnPrefix);
+                }
+                row++;
+                return new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.danven.web_library.catalog;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that listings are assembled from cached card fragments and that updated books are re-rendered.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CardFragmentCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CardFragmentCache cardFragmentCache;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void unchangedCardIsRenderedOnce() {
+        CatalogCard card = anyPublishedCard();
+
+        String html = cardFragmentCache.render(card);
+
+        assertSame(html, cardFragmentCache.render(card));
+        assertTrue(html.contains(HtmlUtils.htmlEscape(card.getName())), html);
+        if (card.getPreviewImageId() != null) {
+            assertTrue(html.contains("/images/" + card.getPreviewImageId() + "/card"), html);
+        }
+    }
+
+    @Test
+    void updatedBookIsRenderedAgain() throws Exception {
+        CatalogCard card = anyPublishedCard();
+        String html = cardFragmentCache.render(card);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = bookRepository.findById(card.getBookId()).orElseThrow();
+            book.setName(book.getName() + " revised");
+            eventPublisher.publishEvent(new BookUpdatedEvent(card.getBookId(), false));
+        });
+
+        CatalogCard updated = catalogSnapshot.current().card(card.getBookId()).orElseThrow();
+        assertNotSame(html, cardFragmentCache.render(updated));
+        mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(HtmlUtils.htmlEscape(updated.getName()))));
+    }
+
+    private CatalogCard anyPublishedCard() {
+        return catalogSnapshot.current().page(null, 1).getItems().get(0);
+    }
+}
@@ -0,0 +1,156 @@
+package com.danven.web_library.catalog;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.dto.CatalogCard;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.repository.BookRepository;
+import com.danven.web_library.repository.CatalogChangeRepository;
+import com.danven.web_library.repository.CatalogRevisionRepository;
+import com.danven.web_library.search.CatalogSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that changes another instance made to the shared database reach the in-memory catalog, refreshing only
+ * the changed books when the change log names them, while changes of this instance don't trigger a second refresh.
+ */
+@SpringBootTest(properties = {
+        "web-library.catalog.revision-sync.enabled=true",
+        "web-library.catalog.revision-sync.interval=1h"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CatalogRevisionSyncTests {
+
+    @Autowired
+    private CatalogRevisionSync catalogRevisionSync;
+
+    @Autowired
+    private CatalogRevisionRepository catalogRevisionRepository;
+
+    @Autowired
+    private CatalogChangeRepository catalogChangeRepository;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void bookChangedElsewhereIsRefreshedAlone() {
+        List<Long> bookIds = publishedBookIds();
+        Long bookId = bookIds.get(0);
+        Long otherId = bookIds.get(1);
+        assertFalse(catalogRevisionSync.poll());
+        // Puts both books into the second-level cache.
+        transactionTemplate.executeWithoutResult(status -> bookIds.forEach(id -> bookRepository.findById(id).orElseThrow()));
+
+        changeElsewhere(bookId, "Peregrine Almanac", true);
+
+        assertTrue(catalogRevisionSync.poll());
+        assertFalse(entityManagerFactory.getCache().contains(Book.class, bookId));
+        assertTrue(entityManagerFactory.getCache().contains(Book.class, otherId));
+        assertEquals("Peregrine Almanac", catalogSnapshot.current().card(bookId).orElseThrow().getName());
+        assertEquals(List.of(bookId), catalogSearchIndex.search("peregrine", null, null, 10).getItems());
+        assertEquals("Peregrine Almanac", transactionTemplate.execute(status ->
+                bookRepository.findById(bookId).map(Book::getName).orElseThrow()));
+        assertFalse(catalogRevisionSync.poll());
+    }
+
+    @Test
+    void changeOfWholeCatalogElsewhereReloadsEverything() {
+        List<Long> bookIds = publishedBookIds();
+        assertFalse(catalogRevisionSync.poll());
+        transactionTemplate.executeWithoutResult(status -> bookIds.forEach(id -> bookRepository.findById(id).orElseThrow()));
+
+        changeElsewhere(bookIds.get(0), "Quillwort Gazette", false);
+        jdbcTemplate.update("INSERT INTO catalog_change (revision, book_id) SELECT revision, NULL FROM catalog_revision");
+
+        assertTrue(catalogRevisionSync.poll());
+        assertFalse(entityManagerFactory.getCache().contains(Book.class, bookIds.get(1)));
+        assertEquals("Quillwort Gazette", catalogSnapshot.current().card(bookIds.get(0)).orElseThrow().getName());
+        assertEquals(List.of(bookIds.get(0)), catalogSearchIndex.search("quillwort", null, null, 10).getItems());
+    }
+
+    @Test
+    void changesNoLongerLoggedReloadEverything() {
+        List<Long> bookIds = publishedBookIds();
+        assertFalse(catalogRevisionSync.poll());
+        transactionTemplate.executeWithoutResult(status -> bookIds.forEach(id -> bookRepository.findById(id).orElseThrow()));
+
+        changeElsewhere(bookIds.get(0), "Marigold Register", false);
+
+        assertTrue(catalogRevisionSync.poll());
+        assertFalse(entityManagerFactory.getCache().contains(Book.class, bookIds.get(1)));
+        assertEquals("Marigold Register", catalogSnapshot.current().card(bookIds.get(0)).orElseThrow().getName());
+    }
+
+    @Test
+    void changeMadeHereIsNotRefreshedAgain() {
+        Long bookId = anyPublishedBookId();
+        assertFalse(catalogRevisionSync.poll());
+        long revision = catalogRevisionRepository.findRevision().orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            book.setName("Halcyon Ledger");
+            eventPublisher.publishEvent(new BookUpdatedEvent(bookId, false));
+        });
+
+        assertEquals(revision + 1, catalogRevisionRepository.findRevision().orElseThrow());
+        assertEquals(bookId, catalogChangeRepository.findById(revision + 1).orElseThrow().getBookId());
+        assertFalse(catalogRevisionSync.poll());
+        assertEquals("Halcyon Ledger", catalogSnapshot.current().card(bookId).orElseThrow().getName());
+    }
+
+    /**
+     * Renames a book and increments the revision directly in the database, as another instance would.
+     */
+    private void changeElsewhere(Long bookId, String name, boolean logged) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE book SET name = ?, version = version + 1 WHERE book_id = ?", name, bookId);
+            jdbcTemplate.update("UPDATE catalog_revision SET revision = revision + 1");
+            if (logged) {
+                jdbcTemplate.update("INSERT INTO catalog_change (revision, book_id) SELECT revision, ? FROM catalog_revision", bookId);
+            }
+        });
+    }
+
+    private List<Long> publishedBookIds() {
+        return catalogSnapshot.current().page(null, 2).getItems().stream()
+                .map(CatalogCard::getBookId)
+                .collect(Collectors.toList());
+    }
+
+    private Long anyPublishedBookId() {
+        return catalogSnapshot.current().page(null, 1).getItems().get(0).getBookId();
+    }
+}
@@ -0,0 +1,131 @@
+package com.danven.web_library.config;
+
+import com.danven.web_library.benchmark.Benchmark;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.danven.web_library.benchmark.Benchmarks.percentileMillis;
+import static com.danven.web_library.benchmark.Benchmarks.report;
+import static com.danven.web_library.benchmark.Benchmarks.secondsSince;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the latency of the home page while a storm of logins hits the server, compared with an idle server.
+ * Password hashing runs on its bounded pool, so the p99 of the home page should stay about flat however many
+ * clients log in at once; logins beyond the pool and its queue are answered with 503, after which a client
+ * waits as long as the Retry-After header asks before trying again.
+ * Defaults to 32 concurrent login clients at the production BCrypt cost.
+ * The number of clients can be changed with {@code -Dbenchmark.logins=...}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.danven.web_library.monitoring=WARN")
+@Benchmark
+class LoginThroughputBenchmark {
+
+    private static final int LOGIN_CLIENTS = Integer.getInteger("benchmark.logins", 32);
+    private static final int CATALOG_REQUESTS = 500;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void catalogLatencyUnderLoginStorm() throws Exception {
+        measureCatalog();
+        List<Long> idle = measureCatalog();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService logins = Executors.newFixedThreadPool(LOGIN_CLIENTS);
+        for (int i = 0; i < LOGIN_CLIENTS; i++) {
+            logins.execute(() -> {
+                try {
+                    while (running.get()) {
+                        HttpResponse<Void> response = login();
+                        if (response.statusCode() == 503) {
+                            rejected.incrementAndGet();
+                            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                            Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter));
+                        } else if (isLoggedIn(response)) {
+                            accepted.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }
+                } catch (IOException e) {
+                    // A client that can't reach the server stops instead of spinning; the failure fails the run.
+                    if (running.get()) {
+                        failed.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        List<Long> storm;
+        try {
+            storm = measureCatalog();
+        } finally {
+            running.set(false);
+            logins.shutdownNow();
+            logins.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        double seconds = secondsSince(start);
+
+        report("Home page p50/p99 idle: %.1f/%.1f ms, during %d login clients: %.1f/%.1f ms",
+                percentileMillis(idle, 50), percentileMillis(idle, 99), LOGIN_CLIENTS,
+                percentileMillis(storm, 50), percentileMillis(storm, 99));
+        report("Logins: %.0f/s accepted, %.0f/s rejected with 503, %d failed",
+                accepted.get() / seconds, rejected.get() / seconds, failed.get());
+        assertEquals(CATALOG_REQUESTS, storm.size());
+        assertEquals(0, failed.get());
+    }
+
+    private List<Long> measureCatalog() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).build();
+        List<Long> latencies = new ArrayList<>(CATALOG_REQUESTS);
+        for (int i = 0; i < CATALOG_REQUESTS; i++) {
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies.add(System.nanoTime() - start);
+            assertEquals(200, response.statusCode());
+        }
+        return latencies;
+    }
+
+    private HttpResponse<Void> login() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=danven2018%40gmail.com&password=12345"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Tells whether a login response redirects to the success page rather than back to the login form.
+     */
+    private static boolean isLoggedIn(HttpResponse<Void> response) {
+        return response.statusCode() == 302 && response.headers().firstValue("Location")
+                .map(location -> URI.create(location).getPath())
+                .filter("/"::equals)
+                .isPresent();
+    }
+}
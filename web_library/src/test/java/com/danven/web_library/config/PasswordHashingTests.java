@@ -0,0 +1,75 @@
+package com.danven.web_library.config;
+
+import com.danven.web_library.exceptions.PasswordHashingBusyException;
+import com.danven.web_library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * Checks that passwords are rehashed on login when the BCrypt cost changed, and that hashing fails fast
+ * once the hashing pool is saturated.
+ */
+@SpringBootTest(properties = "web-library.security.bcrypt-strength=5")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class PasswordHashingTests {
+
+    private static final String EMAIL = "secondUser@gmail.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void passwordIsRehashedWithConfiguredCostOnLogin() throws Exception {
+        Long id = userRepository.findCredentialsByEmail(EMAIL).orElseThrow().getId();
+        userRepository.updatePassword(id, new BCryptPasswordEncoder(4).encode("12345"));
+
+        mockMvc.perform(formLogin("/login").user(EMAIL).password("12345"))
+                .andExpect(redirectedUrl("/"));
+
+        String hash = userRepository.findCredentialsByEmail(EMAIL).orElseThrow().getPassword();
+        assertTrue(hash.startsWith("$2a$05$"), hash);
+    }
+
+    @Test
+    void saturatedPoolRejectsImmediately() throws Exception {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, executor, Duration.ofSeconds(1));
+
+            assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("12345"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
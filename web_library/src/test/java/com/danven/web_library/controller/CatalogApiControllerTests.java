@@ -0,0 +1,134 @@
+package com.danven.web_library.controller;
+
+import com.danven.web_library.catalog.CatalogSnapshot;
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.monitoring.QueryBudgetFilter;
+import com.danven.web_library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the JSON catalog API, in particular that ETags follow the versions of the books.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CatalogApiControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void unchangedBookIsRevalidatedWithoutQueries() throws Exception {
+        Long bookId = anyPublishedBookId();
+        String eTag = mockMvc.perform(get("/api/v1/books/{id}", bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(bookId))
+                .andExpect(jsonPath("$.offer.price").isNumber())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(eTag.startsWith("W/\""));
+
+        MvcResult revalidation = mockMvc.perform(get("/api/v1/books/{id}", bookId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        assertEquals("", revalidation.getResponse().getContentAsString());
+        assertEquals(0, revalidation.getRequest().getAttribute(QueryBudgetFilter.STATEMENT_COUNT_ATTRIBUTE));
+    }
+
+    @Test
+    void updatedBookGetsNewETag() throws Exception {
+        Long bookId = anyPublishedBookId();
+        String eTag = mockMvc.perform(get("/api/v1/books/{id}", bookId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            book.setName(book.getName() + " revised");
+            eventPublisher.publishEvent(new BookUpdatedEvent(bookId, false));
+        });
+
+        String updatedETag = mockMvc.perform(get("/api/v1/books/{id}", bookId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(endsWith(" revised")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, updatedETag);
+    }
+
+    @Test
+    void listIsRevalidatedWithETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/v1/books").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").isNumber())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/books").param("size", "2").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void batchReturnsPublishedBooksInRequestedOrder() throws Exception {
+        Long bookId = anyPublishedBookId();
+
+        mockMvc.perform(get("/api/v1/books/batch").param("ids", bookId + ",-1," + bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(bookId));
+    }
+
+    @Test
+    void batchOfTooManyBooksIsRejected() throws Exception {
+        String ids = String.join(",", Collections.nCopies(51, "1"));
+
+        mockMvc.perform(get("/api/v1/books/batch").param("ids", ids))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").isString());
+    }
+
+    @Test
+    void categoriesAreListed() throws Exception {
+        mockMvc.perform(get("/api/v1/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[0].name").isString());
+    }
+
+    private Long anyPublishedBookId() {
+        return catalogSnapshot.current().page(null, 1).getItems().get(0).getBookId();
+    }
+}
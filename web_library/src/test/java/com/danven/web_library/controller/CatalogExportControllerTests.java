@@ -0,0 +1,115 @@
+package com.danven.web_library.controller;
+
+import com.danven.web_library.config.AuthenticatedUser;
+import com.danven.web_library.config.CustomUserDetailsService;
+import com.danven.web_library.exporting.ExportFormat;
+import com.danven.web_library.service.CatalogExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that only partners and administrators can export the catalog, and only a few at a time.
+ */
+@SpringBootTest(properties = {
+        "web-library.security.partner-emails=danven2018@gmail.com",
+        "web-library.export.max-concurrent-exports=1"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CatalogExportControllerTests {
+
+    private static final String PARTNER = "danven2018@gmail.com";
+
+    private static final String CUSTOMER = "secondUser@gmail.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Test
+    void anonymousClientIsSentToLogin() throws Exception {
+        mockMvc.perform(get("/catalog/export"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
+
+    @Test
+    void customerIsForbidden() throws Exception {
+        mockMvc.perform(get("/catalog/export").with(user(customUserDetailsService.loadUserByUsername(CUSTOMER))))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void partnerDownloadsExport() throws Exception {
+        UserDetails partner = customUserDetailsService.loadUserByUsername(PARTNER);
+        assertTrue(partner.getAuthorities().stream()
+                .anyMatch(authority -> AuthenticatedUser.ROLE_PARTNER.equals(authority.getAuthority())));
+
+        mockMvc.perform(get("/catalog/export").param("format", "csv").with(user(partner)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalog.csv\""));
+    }
+
+    @Test
+    void exportBeyondLimitIsRejected() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        OutputStream blockingOutput = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writing.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CompletableFuture<Long> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return catalogExportService.exportCatalog(ExportFormat.NDJSON, blockingOutput);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            assertTrue(writing.await(30, TimeUnit.SECONDS));
+            String disposition = mockMvc.perform(get("/catalog/export").with(user(customUserDetailsService.loadUserByUsername(PARTNER))))
+                    .andExpect(status().isServiceUnavailable())
+                    .andReturn().getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION);
+            assertNull(disposition);
+        } finally {
+            proceed.countDown();
+        }
+        assertTrue(running.get(30, TimeUnit.SECONDS) > 0);
+    }
+}
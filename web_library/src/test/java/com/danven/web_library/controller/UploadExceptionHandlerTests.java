@@ -0,0 +1,41 @@
+package com.danven.web_library.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UploadExceptionHandlerTests {
+
+    private final UploadExceptionHandler handler = new UploadExceptionHandler();
+
+    @Test
+    void redirectsToSameOriginReferer() {
+        assertEquals("redirect:/profile/offers/details?bookId=7",
+                redirectFor("http://localhost/profile/offers/details?bookId=7"));
+    }
+
+    @Test
+    void redirectsToDefaultPageWithoutReferer() {
+        assertEquals("redirect:/profile/offers", redirectFor(null));
+    }
+
+    @Test
+    void ignoresRefererOfAnotherOrigin() {
+        assertEquals("redirect:/profile/offers", redirectFor("https://evil.example/phish"));
+        assertEquals("redirect:/profile/offers", redirectFor("http://localhost:8081/profile"));
+        assertEquals("redirect:/profile/offers", redirectFor("http://localhost//evil.example/phish"));
+        assertEquals("redirect:/profile/offers", redirectFor("not a uri"));
+    }
+
+    private String redirectFor(String referer) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/profile/offers/details/update");
+        if (referer != null) {
+            request.addHeader("Referer", referer);
+        }
+        return handler.handleMaxUploadSizeExceeded(new MaxUploadSizeExceededException(5L), request,
+                new RedirectAttributesModelMap());
+    }
+}
@@ -0,0 +1,54 @@
+package com.danven.web_library.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTests {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private static final long NOW = CLOCK.millis();
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5), CLOCK);
+
+    @Test
+    void committedWriteRenewsCookie() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest(), response,
+                (request, ignored) -> ReadYourWritesContext.current().extend(NOW + 5000));
+
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertEquals(Long.toString(NOW + 5000), cookie.getValue());
+        assertEquals(5, cookie.getMaxAge());
+        assertTrue(cookie.isHttpOnly());
+    }
+
+    @Test
+    void cookieValueIsCappedAtOneWindow() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(NOW + 3_600_000)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicLong primaryUntil = new AtomicLong();
+
+        filter.doFilter(request, response,
+                (ignored, ignoredResponse) -> primaryUntil.set(ReadYourWritesContext.current().getPrimaryUntil()));
+
+        assertEquals(NOW + 5000, primaryUntil.get());
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+    }
+}
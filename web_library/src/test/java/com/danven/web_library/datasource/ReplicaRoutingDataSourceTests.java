@@ -0,0 +1,222 @@
+package com.danven.web_library.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTests {
+
+    private static final Duration STICKY_WINDOW = Duration.ofSeconds(5);
+
+    private final MutableClock clock = new MutableClock();
+
+    private final List<Connection> keepAlive = new ArrayList<>();
+
+    private ReplicaRoutingDataSource routing;
+
+    @AfterEach
+    void close() throws Exception {
+        ReadYourWritesContext.unbind();
+        routing.close();
+        for (Connection connection : keepAlive) {
+            connection.close();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicasInTurn() throws SQLException {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", database("replica-1"));
+        replicas.put("replica-2", database("replica-2"));
+        TransactionTemplate transactions = transactions(database("primary"), replicas);
+        clock.advance(STICKY_WINDOW);
+
+        assertEquals("replica-1", databaseName(transactions, true));
+        assertEquals("replica-2", databaseName(transactions, true));
+        assertEquals("replica-1", databaseName(transactions, true));
+        assertEquals("primary", databaseName(transactions, false));
+    }
+
+    @Test
+    void readsStayOnPrimaryWithinStickyWindowAfterWrite() throws SQLException {
+        TransactionTemplate transactions = transactions(database("primary"), Map.of("replica-1", database("replica-1")));
+        clock.advance(STICKY_WINDOW);
+        assertEquals("replica-1", databaseName(transactions, true));
+
+        write(transactions);
+        clock.advance(STICKY_WINDOW.minusMillis(1));
+        assertEquals("primary", databaseName(transactions, true));
+
+        clock.advance(Duration.ofMillis(1));
+        assertEquals("replica-1", databaseName(transactions, true));
+    }
+
+    @Test
+    void stickyWindowOnlyAppliesToWritingClient() throws SQLException {
+        TransactionTemplate transactions = transactions(database("primary"), Map.of("replica-1", database("replica-1")));
+        clock.advance(STICKY_WINDOW);
+        ReadYourWritesContext writer = new ReadYourWritesContext(0, until -> {
+        });
+        ReadYourWritesContext reader = new ReadYourWritesContext(0, until -> {
+        });
+
+        ReadYourWritesContext.bind(writer);
+        write(transactions);
+        assertEquals(clock.millis() + STICKY_WINDOW.toMillis(), writer.getPrimaryUntil());
+        assertEquals("primary", databaseName(transactions, true));
+
+        ReadYourWritesContext.bind(reader);
+        assertEquals("replica-1", databaseName(transactions, true));
+        ReadYourWritesContext.unbind();
+        assertEquals("replica-1", databaseName(transactions, true));
+    }
+
+    @Test
+    void transactionsWithoutCommittedWritesLeaveReadsOnReplicas() throws SQLException {
+        TransactionTemplate transactions = transactions(database("primary"), Map.of("replica-1", database("replica-1")));
+        clock.advance(STICKY_WINDOW);
+
+        assertEquals("primary", databaseName(transactions, false));
+        assertEquals("replica-1", databaseName(transactions, true));
+
+        transactions.setReadOnly(false);
+        transactions.executeWithoutResult(status -> {
+            new JdbcTemplate(dataSource(transactions)).execute("CREATE TABLE IF NOT EXISTS NOTE(ID INT)");
+            status.setRollbackOnly();
+        });
+        assertEquals("replica-1", databaseName(transactions, true));
+    }
+
+    @Test
+    void connectionsWithCredentialsAreRoutedToo() throws SQLException {
+        TransactionTemplate transactions = transactions(database("primary"), Map.of("replica-1", database("replica-1")));
+        clock.advance(STICKY_WINDOW);
+
+        transactions.setReadOnly(true);
+        assertEquals("replica-1", transactions.execute(status -> credentialsDatabaseName()));
+        transactions.setReadOnly(false);
+        assertEquals("primary", transactions.execute(status -> credentialsDatabaseName()));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackAndRejoinsAfterHealthCheck() throws SQLException {
+        FailingDataSource replica = new FailingDataSource(database("replica-1"));
+        TransactionTemplate transactions = transactions(database("primary"), Map.of("replica-1", replica));
+        clock.advance(STICKY_WINDOW);
+
+        replica.failing = true;
+        assertEquals("primary", databaseName(transactions, true));
+        assertEquals(List.of(), routing.getHealthyReplicas());
+
+        replica.failing = false;
+        routing.checkReplicas();
+        assertEquals(List.of("replica-1"), routing.getHealthyReplicas());
+        assertEquals("replica-1", databaseName(transactions, true));
+    }
+
+    private TransactionTemplate transactions(DataSource primary, Map<String, DataSource> replicas) {
+        routing = new ReplicaRoutingDataSource(primary, replicas, STICKY_WINDOW, Duration.ofHours(1), clock);
+        return new TransactionTemplate(new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(routing)));
+    }
+
+    private String databaseName(TransactionTemplate transactions, boolean readOnly) {
+        transactions.setReadOnly(readOnly);
+        return transactions.execute(status -> new JdbcTemplate(dataSource(transactions))
+                .queryForObject("SELECT LOWER(DATABASE())", String.class));
+    }
+
+    private void write(TransactionTemplate transactions) {
+        transactions.setReadOnly(false);
+        transactions.executeWithoutResult(status -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource(transactions));
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS NOTE(ID INT)");
+            jdbcTemplate.update("INSERT INTO NOTE VALUES (?)", 1);
+        });
+    }
+
+    private String credentialsDatabaseName() {
+        try (Connection connection = routing.getConnection("", "");
+             ResultSet resultSet = connection.createStatement().executeQuery("SELECT LOWER(DATABASE())")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataSource dataSource(TransactionTemplate transactions) {
+        return ((DataSourceTransactionManager) transactions.getTransactionManager()).getDataSource();
+    }
+
+    /**
+     * Returns an in-memory database, kept open until the end of the test.
+     */
+    private DataSource database(String name) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name);
+        keepAlive.add(dataSource.getConnection());
+        return dataSource;
+    }
+
+    private static final class FailingDataSource extends DelegatingDataSource {
+
+        private volatile boolean failing;
+
+        private FailingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.danven.web_library.monitoring;
+
+import com.danven.web_library.config.CustomUserDetailsService;
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.book.Category;
+import com.danven.web_library.domain.book.IDiskBook;
+import com.danven.web_library.domain.book.PaperBook;
+import com.danven.web_library.repository.BookRepository;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements of the main pages with a cold second-level cache,
+ * so that reintroduced N+1 loading fails the build.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class QueryBudgetTests {
+
+    private static final String OWNER = "danven2018@gmail.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void evictCaches() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void homePage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(1, statementCount(result));
+    }
+
+    @Test
+    void ownOffersPage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/profile/offers").with(owner()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(3, statementCount(result));
+    }
+
+    @Test
+    void bookDetailsPage() throws Exception {
+        Long bookId = anyBookId();
+
+        MvcResult result = mockMvc.perform(get("/profile/offers/details").param("bookId", bookId.toString()).with(owner()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(4, statementCount(result));
+    }
+
+    @Test
+    void updateFlow() throws Exception {
+        MockHttpServletRequestBuilder update = updateOf(anyBookId());
+        evictCaches();
+
+        MvcResult result = mockMvc.perform(update.with(owner()))
+                .andExpect(redirectedUrl("/profile/offers"))
+                .andExpect(flash().attributeCount(0))
+                .andReturn();
+
+        assertEquals(13, statementCount(result));
+    }
+
+    /**
+     * Authenticates requests as the owner with the principal a login creates, which is loaded here
+     * so that the requests themselves don't have to look the user up.
+     */
+    private RequestPostProcessor owner() {
+        return user(customUserDetailsService.loadUserByUsername(OWNER));
+    }
+
+    private int statementCount(MvcResult result) {
+        return (Integer) result.getRequest().getAttribute(QueryBudgetFilter.STATEMENT_COUNT_ATTRIBUTE);
+    }
+
+    private Long anyBookId() {
+        return transactionTemplate.execute(status -> bookRepository.findAll().get(0).getId());
+    }
+
+    private MockHttpServletRequestBuilder updateOf(Long bookId) {
+        return transactionTemplate.execute(status -> {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            MockHttpServletRequestBuilder request = multipart("/profile/offers/details/update")
+                    .param("bookId", bookId.toString())
+                    .param("name", book.getName() + " updated")
+                    .param("yearOfPublishing", String.valueOf(book.getYearOfPublishing()))
+                    .param("description", book.getDescription())
+                    .param("author", book.getAuthor())
+                    .param("isbn", book.getIsbn())
+                    .param("numberOfCopies", String.valueOf(book.getOffer().getNumberOfCopies()))
+                    .param("price", String.valueOf(book.getOffer().getPrice()));
+            for (Category category : book.getCategories()) {
+                request.param("categories", category.getId().toString());
+            }
+            if (book instanceof PaperBook) {
+                request.param("numberOfPages", String.valueOf(((PaperBook) book).getNumberOfPages()));
+            }
+            if (book instanceof IDiskBook) {
+                request.param("durationInHours", String.valueOf(((IDiskBook) book).getDurationInHours()))
+                        .param("diskFormat", ((IDiskBook) book).getDiskFormat().name());
+            }
+            return request;
+        });
+    }
+}
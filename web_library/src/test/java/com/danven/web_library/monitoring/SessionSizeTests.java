@@ -0,0 +1,70 @@
+package com.danven.web_library.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the session guard measures the serialized size of session attributes.
+ */
+@SpringBootTest(properties = {
+        "web-library.session-guard.enabled=true",
+        "web-library.session-guard.sample-rate=1"
+})
+@AutoConfigureMockMvc
+class SessionSizeTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void requestWithoutSessionIsNotMeasured() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/categories")).andReturn();
+
+        assertNull(result.getRequest().getAttribute(SessionSizeFilter.SESSION_SIZE_ATTRIBUTE));
+    }
+
+    @Test
+    void sessionAttributesAreMeasured() throws Exception {
+        MvcResult result = mockMvc.perform(get("/login").sessionAttr("bookIds", new long[1000])).andReturn();
+
+        long size = (long) result.getRequest().getAttribute(SessionSizeFilter.SESSION_SIZE_ATTRIBUTE);
+        assertTrue(size > 8000 && size < 16 * 1024, "session size " + size);
+    }
+
+    @Test
+    void unserializableAttributeIsReported() throws Exception {
+        MvcResult result = mockMvc.perform(get("/login").sessionAttr("lock", new Object())).andReturn();
+
+        assertEquals(-1L, result.getRequest().getAttribute(SessionSizeFilter.SESSION_SIZE_ATTRIBUTE));
+    }
+
+    @Test
+    void failureToMeasureDoesNotFailRequest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/login").sessionAttr("broken", new BrokenAttribute()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertNull(result.getRequest().getAttribute(SessionSizeFilter.SESSION_SIZE_ATTRIBUTE));
+    }
+
+    private static final class BrokenAttribute implements Serializable {
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            throw new IOException("Broken attribute");
+        }
+    }
+}
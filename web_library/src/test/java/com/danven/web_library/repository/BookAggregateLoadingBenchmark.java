@@ -0,0 +1,159 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.benchmark.Benchmark;
+import com.danven.web_library.domain.book.Book;
+import org.hibernate.jpa.QueryHints;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.danven.web_library.benchmark.Benchmarks.report;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares loading the published Book aggregates with the single fetch-join entity graph against the
+ * multi-query aggregate loader, by default at 10k books with 3 images and 3 categories each.
+ * The number of books can be changed with {@code -Dbenchmark.books=...}.
+ */
+@SpringBootTest
+@Benchmark
+class BookAggregateLoadingBenchmark {
+
+    private static final int BOOKS = Integer.getInteger("benchmark.books", 10_000);
+    private static final int IMAGES_PER_BOOK = 3;
+    private static final long FIRST_ID = 1_000_000;
+    private static final int WARMUP_ROUNDS = 1;
+    private static final int MEASURED_ROUNDS = 3;
+
+    private static final String PUBLISHED_BOOKS = "FROM book b JOIN offer o ON o.offer_id = b.offer_id " +
+            "WHERE o.publishing_state = 'PUBLISHED'";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CatalogCardRepository catalogCardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @Test
+    void compareEntityGraphWithAggregateLoader() {
+        seed();
+
+        long graphRows = count("SELECT COUNT(*) " + PUBLISHED_BOOKS.replace("WHERE",
+                "LEFT JOIN contact_info c ON c.offer_id = o.offer_id " +
+                        "LEFT JOIN image i ON i.book_id = b.book_id " +
+                        "LEFT JOIN book_category bc ON bc.book_id = b.book_id WHERE"));
+        long loaderRows = count("SELECT COUNT(*) " + PUBLISHED_BOOKS)
+                + count("SELECT COUNT(*) " + PUBLISHED_BOOKS.replace("WHERE", "LEFT JOIN image i ON i.book_id = b.book_id WHERE"))
+                + count("SELECT COUNT(*) " + PUBLISHED_BOOKS.replace("WHERE", "LEFT JOIN book_category bc ON bc.book_id = b.book_id WHERE"));
+
+        double graphMillis = measure(() -> loadWithEntityGraph());
+        double loaderMillis = measure(() -> bookRepository.findAggregatesByIdIn(catalogCardRepository.findPublishedBookIds()));
+
+        report("Entity graph:     %,d rows, %.1f ms", graphRows, graphMillis);
+        report("Aggregate loader: %,d rows, %.1f ms", loaderRows, loaderMillis);
+
+        assertTrue(loaderRows < graphRows);
+        assertEquals(collectionSizes(() -> loadWithEntityGraph()),
+                collectionSizes(() -> bookRepository.findAggregatesByIdIn(catalogCardRepository.findPublishedBookIds())));
+    }
+
+    private void seed() {
+        Long ownerId = jdbcTemplate.queryForObject("SELECT user_id FROM users WHERE email = 'danven2018@gmail.com'", Long.class);
+        List<Long> categoryIds = jdbcTemplate.queryForList("SELECT category_id FROM category", Long.class);
+        List<Object[]> offers = new ArrayList<>();
+        List<Object[]> contactInfos = new ArrayList<>();
+        List<Object[]> books = new ArrayList<>();
+        List<Object[]> paperBooks = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> bookCategories = new ArrayList<>();
+        for (int n = 0; n < BOOKS; n++) {
+            long offerId = FIRST_ID + 3L * n;
+            long contactInfoId = offerId + 1;
+            long bookId = offerId + 2;
+            offers.add(new Object[]{offerId, 10.0 + n % 50, 1, "BASIC_OFFER", "PUBLISHED", ownerId, 0});
+            contactInfos.add(new Object[]{contactInfoId, "seller" + n + "@example.com", offerId});
+            books.add(new Object[]{bookId, "Author " + n % 100, "Description of book " + n, "bench-" + n, "Book " + n, 2000, offerId, 0});
+            paperBooks.add(new Object[]{bookId, 100 + n % 400});
+            for (int position = 0; position < IMAGES_PER_BOOK; position++) {
+                images.add(new Object[]{bookId * 10 + position, String.format("%064x", bookId * 10 + position),
+                        "PNG", position == 0, position, 1024, bookId});
+            }
+            for (Long categoryId : categoryIds) {
+                bookCategories.add(new Object[]{bookId, categoryId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO offer (offer_id, price, number_of_copies, offer_type, publishing_state, owner_id, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", offers);
+        jdbcTemplate.batchUpdate("INSERT INTO contact_info (contact_info_id, email, offer_id) VALUES (?, ?, ?)", contactInfos);
+        jdbcTemplate.batchUpdate("INSERT INTO book (book_id, author, description, isbn, name, year_of_publishing, offer_id, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", books);
+        jdbcTemplate.batchUpdate("INSERT INTO paper_book (book_id, number_of_pages) VALUES (?, ?)", paperBooks);
+        jdbcTemplate.batchUpdate("INSERT INTO image (image_id, digest, image_format, is_preview, display_position, " +
+                "size_in_bytes, book_id) VALUES (?, ?, ?, ?, ?, ?, ?)", images);
+        jdbcTemplate.batchUpdate("INSERT INTO book_category (book_id, category_id) VALUES (?, ?)", bookCategories);
+    }
+
+    /**
+     * Loads the published books with their offers, contact infos, images, and categories in a single query
+     * through an entity graph over the whole aggregate.
+     */
+    private List<Book> loadWithEntityGraph() {
+        EntityGraph<Book> graph = entityManager.createEntityGraph(Book.class);
+        graph.addSubgraph("offer").addAttributeNodes("contactInfo");
+        graph.addAttributeNodes("images", "categories");
+        return entityManager.createQuery("SELECT b FROM Book b WHERE b.offer.publishState = 'PUBLISHED'", Book.class)
+                .setHint(QueryHints.HINT_LOADGRAPH, graph)
+                .getResultList();
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    /**
+     * Runs a load in a fresh read-only transaction per round and returns the mean time of the measured rounds.
+     */
+    private double measure(Supplier<List<Book>> load) {
+        long total = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            transactionTemplate.execute(status -> load.get().size());
+            if (round >= WARMUP_ROUNDS) {
+                total += System.nanoTime() - start;
+            }
+        }
+        return total / 1_000_000.0 / MEASURED_ROUNDS;
+    }
+
+    private long collectionSizes(Supplier<List<Book>> load) {
+        return transactionTemplate.execute(status -> load.get().stream()
+                .distinct()
+                .mapToLong(book -> book.getImages().size() + book.getCategories().size())
+                .sum());
+    }
+}
@@ -0,0 +1,85 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.book.Category;
+import com.danven.web_library.domain.book.Image;
+import com.danven.web_library.domain.offer.Offer;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Blob;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.danven.web_library.repository.RecordingStatementInspector")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@Transactional
+class BookRepositoryTests {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CatalogCardRepository catalogCardRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void clearStatements() {
+        RecordingStatementInspector.clear();
+    }
+
+    @Test
+    void catalogQueryDoesNotSelectBinaryColumns() {
+        List<Book> books = bookRepository.findAggregatesByIdIn(catalogCardRepository.findPublishedBookIds());
+
+        assertFalse(books.isEmpty());
+        String sql = String.join("\n", RecordingStatementInspector.statements()).toLowerCase(Locale.ROOT);
+        assertTrue(sql.contains("digest"), "catalog query should select image metadata");
+        for (String column : binaryColumns(Book.class, Offer.class, Image.class, Category.class)) {
+            assertFalse(sql.contains(column), "catalog query selects binary column " + column);
+        }
+    }
+
+    @Test
+    void imageMapsNoBinaryContent() {
+        assertTrue(binaryColumns(Image.class).isEmpty());
+    }
+
+    private List<String> binaryColumns(Class<?>... entityClasses) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        List<String> columns = new ArrayList<>();
+        for (Class<?> entityClass : entityClasses) {
+            AbstractEntityPersister persister =
+                    (AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(entityClass);
+            for (String property : persister.getPropertyNames()) {
+                Type type = persister.getPropertyType(property);
+                if (isBinary(type.getReturnedClass())) {
+                    columns.addAll(Arrays.asList(persister.getPropertyColumnNames(property)));
+                }
+            }
+        }
+        return columns.stream().map(column -> column.toLowerCase(Locale.ROOT)).collect(Collectors.toList());
+    }
+
+    private boolean isBinary(Class<?> type) {
+        return Stream.of(byte[].class, Byte[].class, Blob.class).anyMatch(binary -> binary.isAssignableFrom(type));
+    }
+}
@@ -0,0 +1,146 @@
+package com.danven.web_library.repository;
+
+import com.danven.web_library.benchmark.Benchmark;
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.book.Category;
+import com.danven.web_library.domain.book.Image;
+import com.danven.web_library.domain.book.ImageFormat;
+import com.danven.web_library.domain.book.PaperBook;
+import com.danven.web_library.domain.offer.ContactInfo;
+import com.danven.web_library.domain.offer.Offer;
+import com.danven.web_library.domain.offer.OfferType;
+import com.danven.web_library.domain.offer.PublishState;
+import com.danven.web_library.domain.user.Customer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.danven.web_library.benchmark.Benchmarks.report;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures inserts per second when saving offers together with their book, contact info, and images,
+ * once with JDBC batching switched off for the session and once with the configured batch size.
+ * Both runs use the pooled sequence generators. Defaults to 10k offers per run.
+ * The number of offers can be changed with {@code -Dbenchmark.offers=...}.
+ */
+@SpringBootTest
+@Benchmark
+class OfferInsertBenchmark {
+
+    private static final int OFFERS = Integer.getInteger("benchmark.offers", 10_000);
+    private static final int OFFERS_PER_TRANSACTION = 500;
+    private static final int IMAGES_PER_BOOK = 2;
+
+    /**
+     * Rows written per offer: offer, contact info, book, paper book, one book category, and the images.
+     */
+    private static final int ROWS_PER_OFFER = 5 + IMAGES_PER_BOOK;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareUnbatchedWithBatchedInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long offersBefore = countOffers();
+
+        Result unbatched = insert("unbatched", 1, statistics);
+        Result batched = insert("batched", null, statistics);
+
+        report("Unbatched: %,.0f offers/s, %,.0f rows/s, %,d statements",
+                unbatched.offersPerSecond(), unbatched.offersPerSecond() * ROWS_PER_OFFER, unbatched.statements);
+        report("Batched:   %,.0f offers/s, %,.0f rows/s, %,d statements",
+                batched.offersPerSecond(), batched.offersPerSecond() * ROWS_PER_OFFER, batched.statements);
+
+        assertEquals(offersBefore + 2L * OFFERS, countOffers());
+        assertTrue(batched.statements < unbatched.statements);
+    }
+
+    /**
+     * Saves the offers in transactions of {@link #OFFERS_PER_TRANSACTION}, clearing the persistence context after each.
+     *
+     * @param run          a name making the ISBNs of the run unique.
+     * @param jdbcBatchSize the JDBC batch size of the sessions, or null for the configured one.
+     * @param statistics   the statistics of the session factory.
+     * @return the elapsed time and the number of prepared statements.
+     */
+    private Result insert(String run, Integer jdbcBatchSize, Statistics statistics) {
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int from = 0; from < OFFERS; from += OFFERS_PER_TRANSACTION) {
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                Customer owner = entityManager.createQuery("SELECT c FROM Customer c WHERE c.email = :email", Customer.class)
+                        .setParameter("email", "danven2018@gmail.com")
+                        .getSingleResult();
+                Category category = entityManager.createQuery("SELECT c FROM Category c", Category.class)
+                        .setMaxResults(1)
+                        .getSingleResult();
+                for (int n = first; n < Math.min(first + OFFERS_PER_TRANSACTION, OFFERS); n++) {
+                    entityManager.persist(offer(run, n, owner, category));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return new Result(System.nanoTime() - start, statistics.getPrepareStatementCount());
+    }
+
+    private static Offer offer(String run, int n, Customer owner, Category category) {
+        Book book = new PaperBook("Book " + n, 2000, "Description of book " + n, "Author " + n % 100,
+                run + "-" + n, new HashSet<>(Set.of(category)), 100 + n % 400);
+        for (int position = 0; position < IMAGES_PER_BOOK; position++) {
+            new Image(String.format("%064x", n * 10L + position), 1024, ImageFormat.PNG, position == 0, position, book);
+        }
+        Offer offer = new Offer(10.0 + n % 50, 1, book, Optional.empty(), Optional.of(LocalDateTime.now()), Optional.empty(),
+                PublishState.PUBLISHED, EnumSet.of(OfferType.BASIC_OFFER), owner);
+        new ContactInfo("seller" + n + "@example.com", Optional.empty(), Optional.empty(), offer);
+        return offer;
+    }
+
+    private long countOffers() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM offer", Long.class);
+    }
+
+    private static final class Result {
+
+        private final long nanos;
+
+        private final long statements;
+
+        private Result(long nanos, long statements) {
+            this.nanos = nanos;
+            this.statements = statements;
+        }
+
+        private double offersPerSecond() {
+            return OFFERS / (nanos / 1_000_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.danven.web_library.search;
+
+import com.danven.web_library.dto.KeysetPage;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.repository.SearchDocumentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSearchIndexTests {
+
+    private final InMemorySearchDocuments documents = new InMemorySearchDocuments();
+
+    private final CatalogSearchIndex index = new CatalogSearchIndex(documents);
+
+    @Test
+    void tokenizeSplitsOnEverythingButLettersAndDigitsAndFoldsCase() {
+        assertEquals(List.of("der", "zauberberg", "2", "auflage", "978", "3", "ärger"),
+                CatalogSearchIndex.tokenize("Der ZAUBERBERG, 2. Auflage (978-3) Ärger"));
+        assertEquals(List.of(), CatalogSearchIndex.tokenize("  -- "));
+        assertEquals(List.of(), CatalogSearchIndex.tokenize(null));
+        assertFalse(CatalogSearchIndex.hasTerms(" ,. "));
+    }
+
+    @Test
+    void queriesMatchRegardlessOfCase() {
+        documents.publish(1L, "Der Zauberberg", "Thomas Mann", "Roman", "978-3-10-048178-4");
+        index.onApplicationReady();
+
+        assertEquals(List.of(1L), ids("zauberberg"));
+        assertEquals(List.of(1L), ids("THOMAS mann"));
+        assertEquals(List.of(1L), ids("9783100481784"));
+    }
+
+    @Test
+    void termsExpandToTokensTheyArePrefixesOf() {
+        documents.publish(1L, "Der Zauberberg", "Thomas Mann", null, null);
+        documents.publish(2L, "Der Zauberlehrling", "Goethe", null, null);
+        index.onApplicationReady();
+
+        assertEquals(List.of(2L, 1L), ids("zauber"));
+        assertEquals(List.of(1L), ids("zauber man"));
+        assertEquals(List.of(), ids("zauberei"));
+    }
+
+    @Test
+    void resultsAreRankedByFieldWeightAndExactness() {
+        documents.publish(1L, "Notes", null, "A study of tolkien", null);
+        documents.publish(2L, "Letters", "Tolkien", null, null);
+        documents.publish(3L, "Tolkien", null, null, null);
+        documents.publish(4L, "Tolkienesque", null, null, null);
+        documents.publish(5L, "Tolkien", "Tolkien", null, null);
+        index.onApplicationReady();
+
+        // name and author 6, name 4, author 2 and name prefix 2 (newer first), description 1
+        assertEquals(List.of(5L, 3L, 4L, 2L, 1L), ids("tolkien"));
+    }
+
+    @Test
+    void pagesContinueAfterTheCursor() {
+        for (long id = 1; id <= 5; id++) {
+            documents.publish(id, "Book " + id, null, null, null);
+        }
+        index.onApplicationReady();
+
+        KeysetPage<Long> first = index.search("book", null, null, 2);
+        KeysetPage<Long> second = index.search("book", null, first.getNextCursor(), 2);
+        KeysetPage<Long> last = index.search("book", null, second.getNextCursor(), 2);
+
+        assertEquals(List.of(5L, 4L), first.getItems());
+        assertEquals(List.of(3L, 2L), second.getItems());
+        assertEquals(List.of(1L), last.getItems());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void unknownCursorEndsTheResults() {
+        documents.publish(1L, "Book one", null, null, null);
+        documents.publish(2L, "Book two", null, null, null);
+        index.onApplicationReady();
+
+        KeysetPage<Long> page = index.search("book", null, 99L, 2);
+
+        assertEquals(List.of(), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void cappedPrefixExpansionKeepsTheClosestTokens() {
+        for (long id = 1; id <= CatalogSearchIndex.MAX_PREFIX_EXPANSIONS + 10; id++) {
+            documents.publish(id, String.format("ab%05d", id), null, null, null);
+        }
+        long shortTokenBook = CatalogSearchIndex.MAX_PREFIX_EXPANSIONS + 11L;
+        documents.publish(shortTokenBook, "abz", null, null, null);
+        index.onApplicationReady();
+
+        List<Long> ids = ids("ab");
+
+        assertEquals(CatalogSearchIndex.MAX_PREFIX_EXPANSIONS, ids.size());
+        assertTrue(ids.contains(shortTokenBook), ids.toString());
+    }
+
+    @Test
+    void categoryRestrictsTheResults() {
+        documents.publish(1L, "Dune", null, null, null, 7L);
+        documents.publish(2L, "Dune Messiah", null, null, null, 8L);
+        index.onApplicationReady();
+
+        assertEquals(List.of(2L), index.search("dune", 8L, null, 10).getItems());
+        assertEquals(List.of(1L), index.search(null, 7L, null, 10).getItems());
+    }
+
+    @Test
+    void updatedBookIsReindexed() {
+        documents.publish(1L, "Dune", null, null, null);
+        documents.publish(2L, "Emma", null, null, null);
+        index.onApplicationReady();
+
+        documents.publish(1L, "Dune Messiah", null, null, null);
+        index.onBookUpdated(new BookUpdatedEvent(1L, false));
+
+        assertEquals(List.of(1L), ids("messiah"));
+        assertEquals(List.of(2L), ids("emma"));
+
+        documents.unpublish(1L);
+        index.onBookUpdated(new BookUpdatedEvent(1L, false));
+
+        assertEquals(List.of(), ids("dune"));
+        assertEquals(List.of(2L), ids(null));
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, null, null, 1000).getItems();
+    }
+
+    /**
+     * Search documents kept in memory instead of being queried from the book table.
+     */
+    private static class InMemorySearchDocuments implements SearchDocumentRepository {
+
+        private final Map<Long, SearchDocument> published = new LinkedHashMap<>();
+
+        private final Map<Long, List<Long>> categories = new HashMap<>();
+
+        void publish(Long bookId, String name, String author, String description, String isbn, Long... categoryIds) {
+            published.put(bookId, new SearchDocument(bookId, name, author, description, isbn));
+            categories.put(bookId, List.of(categoryIds));
+        }
+
+        void unpublish(Long bookId) {
+            published.remove(bookId);
+        }
+
+        @Override
+        public List<SearchDocument> findPublishedDocuments() {
+            List<SearchDocument> copies = new ArrayList<>();
+            published.values().forEach(document -> copies.add(copy(document)));
+            return copies;
+        }
+
+        @Override
+        public Optional<SearchDocument> findPublishedDocument(Long bookId) {
+            return Optional.ofNullable(published.get(bookId)).map(InMemorySearchDocuments::copy);
+        }
+
+        @Override
+        public List<Object[]> findPublishedCategoryIds() {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long bookId : published.keySet()) {
+                for (Long categoryId : categories.get(bookId)) {
+                    rows.add(new Object[]{bookId, categoryId});
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public List<Long> findCategoryIds(Long bookId) {
+            return categories.getOrDefault(bookId, List.of());
+        }
+
+        private static SearchDocument copy(SearchDocument document) {
+            return new SearchDocument(document.getBookId(), document.getName(), document.getAuthor(),
+                    document.getDescription(), document.getIsbn());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.danven.web_library.search;
+
+import com.danven.web_library.catalog.CatalogSnapshot;
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.event.BookUpdatedEvent;
+import com.danven.web_library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the search index follows committed book updates and ignores rolled back ones.
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CatalogSearchIndexUpdateTests {
+
+    @Autowired
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void committedUpdateIsIndexed() {
+        Long bookId = anyPublishedBookId();
+
+        rename(bookId, "Quixotic Voyages", false);
+
+        assertEquals(List.of(bookId), catalogSearchIndex.search("quixotic", null, null, 10).getItems());
+    }
+
+    @Test
+    void rolledBackUpdateIsNotIndexed() {
+        Long bookId = anyPublishedBookId();
+
+        rename(bookId, "Xylographic Prints", true);
+
+        assertEquals(List.of(), catalogSearchIndex.search("xylographic", null, null, 10).getItems());
+    }
+
+    private void rename(Long bookId, String name, boolean rollback) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            book.setName(name);
+            eventPublisher.publishEvent(new BookUpdatedEvent(bookId, false));
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+        });
+    }
+
+    private Long anyPublishedBookId() {
+        return catalogSnapshot.current().page(null, 1).getItems().get(0).getBookId();
+    }
+}
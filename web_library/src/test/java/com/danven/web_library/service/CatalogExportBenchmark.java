@@ -0,0 +1,101 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.benchmark.Benchmark;
+import com.danven.web_library.domain.user.User;
+import com.danven.web_library.exporting.ExportFormat;
+import com.danven.web_library.importing.ImportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.danven.web_library.benchmark.Benchmarks.generatedCatalogCsv;
+import static com.danven.web_library.benchmark.Benchmarks.megabytes;
+import static com.danven.web_library.benchmark.Benchmarks.report;
+import static com.danven.web_library.benchmark.Benchmarks.retainedHeap;
+import static com.danven.web_library.benchmark.Benchmarks.secondsSince;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the export throughput and the heap retained while exporting a large catalog.
+ * The catalog is first filled by importing generated rows into a file database below target, since an
+ * in-memory database would keep the rows on the heap. The export is written to a stream that only counts
+ * lines; the retained heap is measured after a full collection whenever another quarter of the rows has
+ * been written, and should stay flat however many rows are exported. A first export warms up the JIT
+ * and the database cache and isn't measured. Defaults to 100k rows.
+ * The number of rows can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/catalog-export-benchmark",
+        "web-library.import.image-directory=src/main/resources/static/images"
+})
+@Benchmark
+class CatalogExportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    void exportLargeCatalog() throws Exception {
+        User owner = customerService.getUserByEmail("secondUser@gmail.com");
+        catalogImportService.importCatalog(generatedCatalogCsv(ROWS, "export", row -> {
+        }), ImportFormat.CSV, owner.getId());
+        catalogExportService.exportCatalog(ExportFormat.NDJSON, OutputStream.nullOutputStream());
+        List<Long> retainedHeap = new ArrayList<>();
+        retainedHeap.add(retainedHeap());
+        LineCountingStream output = new LineCountingStream(retainedHeap);
+
+        long start = System.nanoTime();
+        long exported = catalogExportService.exportCatalog(ExportFormat.NDJSON, output);
+        double seconds = secondsSince(start);
+
+        report("Exported %,d rows, %,d MB, at %,.0f rows/s", exported, output.bytes >> 20, exported / seconds);
+        report("Retained heap at 0%%, 25%%, 50%%, 75%%: %s MB", megabytes(retainedHeap));
+        assertEquals(exported, output.lines);
+    }
+
+    /**
+     * Discards the export, counting its bytes and lines and measuring the retained heap every quarter of the rows.
+     */
+    private static final class LineCountingStream extends OutputStream {
+
+        private final List<Long> retainedHeap;
+
+        private long bytes;
+
+        private long lines;
+
+        private LineCountingStream(List<Long> retainedHeap) {
+            this.retainedHeap = retainedHeap;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+                if (lines % (ROWS / 4) == 0 && retainedHeap.size() < 4) {
+                    retainedHeap.add(retainedHeap());
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+    }
+}
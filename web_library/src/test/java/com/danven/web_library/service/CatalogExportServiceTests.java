@@ -0,0 +1,68 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.catalog.CatalogSnapshot;
+import com.danven.web_library.exporting.ExportFormat;
+import com.danven.web_library.exporting.OfferRecordExporter;
+import com.danven.web_library.importing.ImportFormat;
+import com.danven.web_library.importing.ImportRecord;
+import com.danven.web_library.importing.ImportRecordReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CatalogExportServiceTests {
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void csvAndNdjsonExportsContainTheSamePublishedOffers() throws IOException {
+        List<ImportRecord> csv = readBack(ExportFormat.CSV, ImportFormat.CSV);
+        List<ImportRecord> ndjson = readBack(ExportFormat.NDJSON, ImportFormat.NDJSON);
+
+        assertEquals(catalogSnapshot.current().size(), csv.size());
+        assertEquals(csv.size(), ndjson.size());
+        for (int i = 0; i < csv.size(); i++) {
+            for (String field : OfferRecordExporter.FIELDS) {
+                assertEquals(csv.get(i).getList(field), ndjson.get(i).getList(field), field);
+            }
+            assertTrue(csv.get(i).get("publishState").map("PUBLISHED"::equals).orElse(false));
+            assertFalse(csv.get(i).getList("categories").isEmpty());
+        }
+    }
+
+    private List<ImportRecord> readBack(ExportFormat exportFormat, ImportFormat importFormat) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = catalogExportService.exportCatalog(exportFormat, output);
+        List<ImportRecord> records = new ArrayList<>();
+        try (ImportRecordReader reader = importFormat.open(
+                new StringReader(output.toString(StandardCharsets.UTF_8)), objectMapper)) {
+            for (ImportRecord record = reader.next(); record != null; record = reader.next()) {
+                assertEquals(Optional.empty(), record.getError());
+                records.add(record);
+            }
+        }
+        assertEquals(exported, records.size());
+        return records;
+    }
+}
@@ -0,0 +1,65 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.benchmark.Benchmark;
+import com.danven.web_library.domain.user.User;
+import com.danven.web_library.importing.CatalogImportReport;
+import com.danven.web_library.importing.ImportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.danven.web_library.benchmark.Benchmarks.generatedCatalogCsv;
+import static com.danven.web_library.benchmark.Benchmarks.megabytes;
+import static com.danven.web_library.benchmark.Benchmarks.report;
+import static com.danven.web_library.benchmark.Benchmarks.retainedHeap;
+import static com.danven.web_library.benchmark.Benchmarks.secondsSince;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the import throughput and the heap retained while importing a generated CSV file.
+ * The file is generated while it is read, so the input itself takes no memory. The retained heap is measured
+ * after a full collection whenever another quarter of the rows has been read; with the bounded queues it
+ * should stay flat however many rows are imported. The benchmark writes to a file database below target,
+ * since an in-memory database would keep the imported rows on the heap. Defaults to 50k rows,
+ * every one with a book, an offer, a contact info, and two images.
+ * The number of rows can be changed with {@code -Dbenchmark.rows=...}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/catalog-import-benchmark",
+        "web-library.import.image-directory=src/main/resources/static/images"
+})
+@Benchmark
+class CatalogImportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 50_000);
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    void importGeneratedCsv() throws Exception {
+        User owner = customerService.getUserByEmail("secondUser@gmail.com");
+        List<Long> retainedHeap = new ArrayList<>();
+        retainedHeap.add(retainedHeap());
+
+        long start = System.nanoTime();
+        InputStream csv = generatedCatalogCsv(ROWS, "bench", row -> {
+            if (row > 0 && row % (ROWS / 4) == 0 && retainedHeap.size() < 4) {
+                retainedHeap.add(retainedHeap());
+            }
+        });
+        CatalogImportReport report = catalogImportService.importCatalog(csv, ImportFormat.CSV, owner.getId());
+        double minutes = secondsSince(start) / 60;
+
+        report("Imported %,d rows at %,.0f rows/min", report.getRowsImported(), report.getRowsImported() / minutes);
+        report("Retained heap at 0%%, 25%%, 50%%, 75%%: %s MB", megabytes(retainedHeap));
+        assertEquals(ROWS, report.getRowsImported());
+    }
+}
@@ -0,0 +1,145 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.catalog.CatalogSnapshot;
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.book.PaperBookWithDisk;
+import com.danven.web_library.domain.user.User;
+import com.danven.web_library.importing.CatalogImportReport;
+import com.danven.web_library.importing.ImportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog-import-tests",
+        "web-library.import.image-directory=src/main/resources/static/images",
+        "web-library.import.batch-size=2",
+        "web-library.import.queue-capacity=4"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CatalogImportServiceTests {
+
+    private static final String CSV_HEADER = "type,name,yearOfPublishing,description,author,isbn,categories,numberOfPages,"
+            + "durationInHours,diskFormat,price,numberOfCopies,offerTypes,publishingTime,email,images\n";
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void validCsvRowsAreImportedAndInvalidRowsReported() throws IOException {
+        String csv = CSV_HEADER
+                + "PAPER_BOOK,Imported one,2001,First,Author,csv-1,Fantasy|Science,120,,,10.5,2,BASIC_OFFER,2024-01-01T10:00,one@example.com,R.png|book1(jpeg).jpeg\n"
+                + "PAPER_BOOK,Imported two,2002,Second,Author,csv-2,Horror,120,,,10.5,2,BASIC_OFFER,2024-01-01T10:00,two@example.com,\n"
+                + "\"PAPER_BOOK_WITH_DISK\",\"Imported, three\",2003,\"Third\nwith two lines\",Author,csv-3,science,300,1.5,dvd,12,1,BASIC_OFFER,2024-01-01T10:00,three@example.com,\n"
+                + "DISK_BOOK,Imported four,2004,Fourth,Author,csv-1,Documentary,,2,CD,12,1,BASIC_OFFER,2024-01-01T10:00,four@example.com,\n"
+                + "PAPER_BOOK,Imported five,2005,Fifth,Author,csv-5,Fantasy,0,,,12,1,BASIC_OFFER,2024-01-01T10:00,five@example.com,\n"
+                + "PAPER_BOOK,Imported six,2006,Sixth,Author,csv-6,Fantasy,10,,,12,1,BASIC_OFFER,2024-01-01T10:00,six@example.com,../../../../pom.xml\n"
+                + "PAPER_BOOK,\"Imported \"seven\",2007\n";
+        int catalogSize = catalogSnapshot.current().size();
+
+        CatalogImportReport report = importFile(csv, ImportFormat.CSV);
+
+        assertEquals(7, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(List.of(3L, 6L, 7L, 8L, 9L), report.getErrors().stream()
+                .map(CatalogImportReport.RowError::getLine)
+                .collect(Collectors.toList()));
+        assertTrue(report.getErrors().get(0).getMessage().contains("unknown category 'Horror'"));
+        assertTrue(report.getErrors().get(1).getMessage().contains("'csv-1'"));
+        assertTrue(report.getErrors().get(2).getMessage().contains("numberOfPages"));
+        assertTrue(report.getErrors().get(3).getMessage().contains("outside the import image directory"));
+        assertEquals(catalogSize + 2, catalogSnapshot.current().size());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Book first = findBook("csv-1").orElseThrow();
+            assertEquals(2, first.getImages().size());
+            assertEquals(2, first.getCategories().size());
+            assertEquals("secondUser@gmail.com", first.getOffer().getOwner().getEmail());
+            Book third = findBook("csv-3").orElseThrow();
+            assertEquals("Imported, three", third.getName());
+            assertEquals("Third\nwith two lines", third.getDescription());
+            assertTrue(third instanceof PaperBookWithDisk);
+        });
+    }
+
+    @Test
+    void unresolvableImagePathIsRejectedWithoutStallingTheImport() {
+        StringBuilder csv = new StringBuilder(CSV_HEADER)
+                .append("PAPER_BOOK,Nul path,2001,Nul,Author,nul-0,Fantasy,120,,,10.5,2,BASIC_OFFER,2024-01-01T10:00,")
+                .append("nul@example.com,cover\0.png\n");
+        for (int i = 1; i <= 20; i++) {
+            csv.append("PAPER_BOOK,After nul ").append(i).append(",2001,After,Author,nul-").append(i)
+                    .append(",Fantasy,120,,,10.5,2,BASIC_OFFER,2024-01-01T10:00,after@example.com,\n");
+        }
+
+        CatalogImportReport report = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> importFile(csv.toString(), ImportFormat.CSV));
+
+        assertEquals(21, report.getRowsRead());
+        assertEquals(20, report.getRowsImported());
+        assertEquals(1, report.getErrors().size());
+        assertEquals(2L, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getMessage().contains("not a valid path"));
+    }
+
+    @Test
+    void ndjsonRowsAreImportedAndMalformedLinesReported() throws IOException {
+        String ndjson = "{\"type\":\"disk_book\",\"name\":\"Json one\",\"yearOfPublishing\":2010,\"description\":\"One\","
+                + "\"author\":\"Author\",\"isbn\":\"json-1\",\"categories\":[\"Documentary\"],\"durationInHours\":3.5,"
+                + "\"diskFormat\":\"Blu_Ray\",\"price\":20,\"numberOfCopies\":1,\"offerTypes\":[\"DISCOUNT_OFFER\"],"
+                + "\"discount\":5,\"email\":\"json@example.com\"}\n"
+                + "\n"
+                + "{\"type\":\"disk_book\",\"name\":\n"
+                + "[1, 2]\n";
+
+        CatalogImportReport report = importFile(ndjson, ImportFormat.NDJSON);
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(1, report.getRowsImported());
+        assertEquals(List.of(3L, 4L), report.getErrors().stream()
+                .map(CatalogImportReport.RowError::getLine)
+                .collect(Collectors.toList()));
+        assertEquals(Boolean.TRUE, transactionTemplate.execute(status -> findBook("json-1").isPresent()));
+    }
+
+    private Optional<Book> findBook(String isbn) {
+        return entityManager.createQuery("SELECT b FROM Book b WHERE b.isbn = :isbn", Book.class)
+                .setParameter("isbn", isbn)
+                .getResultStream()
+                .findFirst();
+    }
+
+    private CatalogImportReport importFile(String content, ImportFormat format) throws IOException {
+        User owner = customerService.getUserByEmail("secondUser@gmail.com");
+        return catalogImportService.importCatalog(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format, owner.getId());
+    }
+}
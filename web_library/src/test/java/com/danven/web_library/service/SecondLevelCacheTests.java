@@ -0,0 +1,143 @@
+package com.danven.web_library.service;
+
+import com.danven.web_library.domain.book.Book;
+import com.danven.web_library.domain.book.Category;
+import com.danven.web_library.domain.book.IDiskBook;
+import com.danven.web_library.domain.book.PaperBook;
+import com.danven.web_library.domain.user.User;
+import com.danven.web_library.dto.BookUpdateDto;
+import com.danven.web_library.repository.BookRepository;
+import com.danven.web_library.repository.CategoryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class SecondLevelCacheTests {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetCache() {
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void bookIsReadFromCacheInLaterTransactions() {
+        Long bookId = anyBookId();
+
+        readCategoryIds(bookId);
+        long statements = statistics.getPrepareStatementCount();
+        long bookHits = statistics.getDomainDataRegionStatistics("book").getHitCount();
+        long categoryHits = statistics.getDomainDataRegionStatistics("book-categories").getHitCount();
+        readCategoryIds(bookId);
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(bookHits + 1, statistics.getDomainDataRegionStatistics("book").getHitCount());
+        assertEquals(categoryHits + 1, statistics.getDomainDataRegionStatistics("book-categories").getHitCount());
+    }
+
+    @Test
+    void updateBookWithOfferRefreshesCachedBookAndCategories() throws Exception {
+        Long bookId = anyBookId();
+        Set<Long> categoryIds = readCategoryIds(bookId);
+        List<Long> otherCategoryIds = categoryRepository.findAll().stream()
+                .map(Category::getId)
+                .filter(id -> !categoryIds.contains(id))
+                .collect(Collectors.toList());
+
+        bookService.updateBookWithOffer(bookId, updateOf(bookId, "Renamed", otherCategoryIds));
+
+        assertEquals("Renamed", transactionTemplate.execute(status -> bookRepository.findById(bookId).orElseThrow().getName()));
+        Set<Long> updatedCategoryIds = readCategoryIds(bookId);
+        assertEquals(Set.copyOf(otherCategoryIds), updatedCategoryIds);
+        assertNotEquals(categoryIds, updatedCategoryIds);
+    }
+
+    @Test
+    void categoriesAreListedFromQueryCache() {
+        categoryRepository.findAll();
+        categoryRepository.findAll();
+
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void userIsResolvedByEmailFromNaturalIdCache() {
+        User user = customerService.getUserByEmail("danven2018@gmail.com");
+        long statements = statistics.getPrepareStatementCount();
+        long naturalIdHits = statistics.getNaturalIdCacheHitCount();
+
+        assertEquals(user.getId(), customerService.getUserByEmail("danven2018@gmail.com").getId());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(naturalIdHits + 1, statistics.getNaturalIdCacheHitCount());
+    }
+
+    private Long anyBookId() {
+        return transactionTemplate.execute(status -> bookRepository.findAll().get(0).getId());
+    }
+
+    private Set<Long> readCategoryIds(Long bookId) {
+        return transactionTemplate.execute(status -> bookRepository.findById(bookId).orElseThrow()
+                .getCategories().stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet()));
+    }
+
+    private BookUpdateDto updateOf(Long bookId, String name, List<Long> categoryIds) {
+        return transactionTemplate.execute(status -> {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            BookUpdateDto dto = new BookUpdateDto();
+            dto.setName(name);
+            dto.setYearOfPublishing(book.getYearOfPublishing());
+            dto.setDescription(book.getDescription());
+            dto.setAuthor(book.getAuthor());
+            dto.setIsbn(book.getIsbn());
+            dto.setCategories(categoryIds);
+            dto.setNumberOfCopies(book.getOffer().getNumberOfCopies());
+            dto.setPrice((float) book.getOffer().getPrice());
+            if (book instanceof PaperBook) {
+                dto.setNumberOfPages(((PaperBook) book).getNumberOfPages());
+            }
+            if (book instanceof IDiskBook) {
+                dto.setDurationInHours((float) ((IDiskBook) book).getDurationInHours());
+                dto.setDiskFormat(((IDiskBook) book).getDiskFormat().name());
+            }
+            return dto;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.danven.web_library.session;
+
+import com.danven.web_library.monitoring.SessionSizeFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.http.Cookie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Boots the jdbc-sessions profile and checks that a login is kept in the session table in compact form,
+ * so that any instance reading that table recognizes the user, and that the session guard measures the
+ * session as the table stores it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:session-tests",
+        "web-library.session-guard.enabled=true",
+        "web-library.session-guard.sample-rate=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("jdbc-sessions")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class JdbcSessionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void loginIsStoredCompactlyAndRestoredFromTheTable() throws Exception {
+        Cookie session = mockMvc.perform(formLogin("/login").user("danven2018@gmail.com").password("12345"))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getResponse().getCookie("SESSION");
+
+        byte[] securityContext = jdbcTemplate.queryForObject(
+                "SELECT attribute_bytes FROM spring_session_attributes WHERE attribute_name = ?",
+                byte[].class, HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        assertEquals(1, securityContext[0]);
+        assertTrue(securityContext.length < 100, "security context of " + securityContext.length + " bytes");
+
+        long measuredSize = (long) mockMvc.perform(get("/profile").cookie(session))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getAttribute(SessionSizeFilter.SESSION_SIZE_ATTRIBUTE);
+        assertEquals(securityContext.length, measuredSize);
+    }
+}
@@ -0,0 +1,42 @@
+package com.danven.web_library.util;
+
+import com.danven.web_library.domain.book.ImageFormat;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImageResizerTests {
+
+    @Test
+    void decodesImageWithinPixelLimit() throws IOException {
+        byte[] png = png(100, 50);
+
+        BufferedImage image = ImageResizer.decode(new ByteArrayInputStream(png), 5_000);
+
+        assertEquals(100, image.getWidth());
+        assertEquals(50, image.getHeight());
+    }
+
+    @Test
+    void rejectsImageOverPixelLimit() throws IOException {
+        byte[] png = png(100, 50);
+
+        assertThrows(IOException.class, () -> ImageResizer.decode(new ByteArrayInputStream(png), 4_999));
+    }
+
+    @Test
+    void rejectsContentThatIsNoImage() {
+        byte[] text = "not an image".getBytes();
+
+        assertThrows(IOException.class, () -> ImageResizer.decode(new ByteArrayInputStream(text), 5_000));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        return ImageResizer.encode(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), ImageFormat.PNG);
+    }
+}